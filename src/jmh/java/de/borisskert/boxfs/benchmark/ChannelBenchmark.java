@@ -0,0 +1,102 @@
+package de.borisskert.boxfs.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class ChannelBenchmark extends FileSystemBenchmark {
+    private static final int RANDOM_OPERATIONS = 64;
+
+    @Param({"4096", "1048576", "16777216"})
+    public int fileSize;
+
+    @Param({"8192"})
+    public int bufferSize;
+
+    private Path file;
+    private byte[] buffer;
+    private int[] positions;
+
+    @Override
+    protected void setup() throws IOException {
+        buffer = new byte[bufferSize];
+        new Random(42).nextBytes(buffer);
+
+        file = workingDirectory.resolve("data.bin");
+        writeFile();
+
+        Random random = new Random(4711);
+        int chunk = Math.min(bufferSize, fileSize);
+
+        positions = new int[RANDOM_OPERATIONS];
+        for (int i = 0; i < RANDOM_OPERATIONS; i++) {
+            positions[i] = random.nextInt(fileSize - chunk + 1);
+        }
+    }
+
+    @Benchmark
+    public void sequentialWrite() throws IOException {
+        writeFile();
+    }
+
+    @Benchmark
+    public long sequentialRead() throws IOException {
+        long total = 0;
+
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RANDOM_OPERATIONS)
+    public void randomRead(Blackhole blackhole) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, Math.min(bufferSize, fileSize));
+
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            for (int position : positions) {
+                target.clear().limit(Math.min(bufferSize, fileSize));
+                channel.position(position);
+                blackhole.consume(channel.read(target));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RANDOM_OPERATIONS)
+    public void randomWrite(Blackhole blackhole) throws IOException {
+        ByteBuffer source = ByteBuffer.wrap(buffer, 0, Math.min(bufferSize, fileSize));
+
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            for (int position : positions) {
+                source.clear().limit(Math.min(bufferSize, fileSize));
+                channel.position(position);
+                blackhole.consume(channel.write(source));
+            }
+        }
+    }
+
+    private void writeFile() throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int written = 0; written < fileSize; written += bufferSize) {
+                out.write(buffer, 0, Math.min(bufferSize, fileSize - written));
+            }
+        }
+    }
+}
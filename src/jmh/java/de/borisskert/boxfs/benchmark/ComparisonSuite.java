@@ -0,0 +1,28 @@
+package de.borisskert.boxfs.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class ComparisonSuite {
+    private static final String DEFAULT_FLAVORS = "UNIX,MACOS,WINDOWS,TMP,SHM";
+    private static final String DEFAULT_RESULT = "target/comparison.json";
+
+    public static void main(String[] args) throws RunnerException {
+        String flavors = args.length > 0 ? args[0] : DEFAULT_FLAVORS;
+        String result = args.length > 1 ? args[1] : DEFAULT_RESULT;
+
+        Options options = new OptionsBuilder()
+                .include(WorkloadBenchmark.class.getSimpleName())
+                .param("flavor", flavors.split(","))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+
+        new Runner(options).run();
+    }
+}
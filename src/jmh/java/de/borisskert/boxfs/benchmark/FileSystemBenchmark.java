@@ -0,0 +1,38 @@
+package de.borisskert.boxfs.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class FileSystemBenchmark {
+
+    @Param({"UNIX", "MACOS", "WINDOWS", "DEFAULT"})
+    public FileSystemFlavor flavor;
+
+    protected FileSystem fileSystem;
+    protected Path workingDirectory;
+
+    @Setup(Level.Trial)
+    public void openFileSystem() throws IOException {
+        fileSystem = flavor.open();
+        workingDirectory = flavor.workingDirectory(fileSystem);
+
+        setup();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeFileSystem() throws IOException {
+        flavor.close(fileSystem, workingDirectory);
+    }
+
+    protected abstract void setup() throws IOException;
+}
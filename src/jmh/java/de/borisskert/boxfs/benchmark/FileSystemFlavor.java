@@ -0,0 +1,101 @@
+package de.borisskert.boxfs.benchmark;
+
+import de.borisskert.boxfs.BoxFs;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public enum FileSystemFlavor {
+    UNIX {
+        @Override
+        FileSystem open() {
+            return BoxFs.unix();
+        }
+
+        @Override
+        Path workingDirectory(FileSystem fileSystem) throws IOException {
+            return Files.createDirectory(fileSystem.getPath("/benchmark"));
+        }
+    },
+    MACOS {
+        @Override
+        FileSystem open() {
+            return BoxFs.macos();
+        }
+
+        @Override
+        Path workingDirectory(FileSystem fileSystem) throws IOException {
+            return Files.createDirectory(fileSystem.getPath("/benchmark"));
+        }
+    },
+    WINDOWS {
+        @Override
+        FileSystem open() {
+            return BoxFs.windows();
+        }
+
+        @Override
+        Path workingDirectory(FileSystem fileSystem) throws IOException {
+            return Files.createDirectory(fileSystem.getPath("C:\\benchmark"));
+        }
+    },
+    DEFAULT {
+        @Override
+        FileSystem open() {
+            return FileSystems.getDefault();
+        }
+
+        @Override
+        Path workingDirectory(FileSystem fileSystem) throws IOException {
+            return Files.createTempDirectory("boxfs-benchmark");
+        }
+
+        @Override
+        void close(FileSystem fileSystem, Path workingDirectory) throws IOException {
+            BoxFs.deleteTree(workingDirectory);
+        }
+    },
+    TMP {
+        @Override
+        FileSystem open() {
+            return FileSystems.getDefault();
+        }
+
+        @Override
+        Path workingDirectory(FileSystem fileSystem) throws IOException {
+            return Files.createTempDirectory(fileSystem.getPath("/tmp"), "boxfs-benchmark");
+        }
+
+        @Override
+        void close(FileSystem fileSystem, Path workingDirectory) throws IOException {
+            BoxFs.deleteTree(workingDirectory);
+        }
+    },
+    SHM {
+        @Override
+        FileSystem open() {
+            return FileSystems.getDefault();
+        }
+
+        @Override
+        Path workingDirectory(FileSystem fileSystem) throws IOException {
+            return Files.createTempDirectory(fileSystem.getPath("/dev/shm"), "boxfs-benchmark");
+        }
+
+        @Override
+        void close(FileSystem fileSystem, Path workingDirectory) throws IOException {
+            BoxFs.deleteTree(workingDirectory);
+        }
+    };
+
+    abstract FileSystem open();
+
+    abstract Path workingDirectory(FileSystem fileSystem) throws IOException;
+
+    void close(FileSystem fileSystem, Path workingDirectory) throws IOException {
+        fileSystem.close();
+    }
+}
@@ -0,0 +1,36 @@
+package de.borisskert.boxfs.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ListingBenchmark extends FileSystemBenchmark {
+
+    @Param({"16", "1024"})
+    public int entries;
+
+    private Path directory;
+
+    @Override
+    protected void setup() throws IOException {
+        directory = Files.createDirectory(workingDirectory.resolve("listing"));
+
+        for (int i = 0; i < entries; i++) {
+            Files.createFile(directory.resolve("file" + i));
+        }
+    }
+
+    @Benchmark
+    public void list(Blackhole blackhole) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                blackhole.consume(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.borisskert.boxfs.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.nio.file.Path;
+
+public class PathBenchmark extends FileSystemBenchmark {
+
+    private String absolute;
+    private Path base;
+    private Path relative;
+    private Path other;
+
+    @Override
+    protected void setup() {
+        base = workingDirectory.resolve("projects").resolve("boxfs").resolve("src");
+        relative = fileSystem.getPath("main").resolve("java").resolve("BoxFs.java");
+        other = workingDirectory.resolve("projects").resolve("other").resolve("test").resolve("Other.java");
+        absolute = base.resolve(relative).toString();
+    }
+
+    @Benchmark
+    public Path parse() {
+        return fileSystem.getPath(absolute);
+    }
+
+    @Benchmark
+    public Path resolve() {
+        return base.resolve(relative);
+    }
+
+    @Benchmark
+    public Path relativize() {
+        return base.relativize(other);
+    }
+
+    @Benchmark
+    public Path parent() {
+        return fileSystem.getPath(absolute).getParent();
+    }
+
+    @Benchmark
+    public Path fileName() {
+        return fileSystem.getPath(absolute).getFileName();
+    }
+}
@@ -0,0 +1,76 @@
+package de.borisskert.boxfs.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+public class TreeBenchmark extends FileSystemBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int depth;
+
+    @Param({"1", "64", "1024"})
+    public int fanOut;
+
+    private Path directory;
+    private Path[] files;
+    private String[] fileNames;
+    private int next;
+
+    @Override
+    protected void setup() throws IOException {
+        directory = workingDirectory;
+
+        for (int i = 0; i < depth; i++) {
+            directory = directory.resolve("level" + i);
+        }
+
+        Files.createDirectories(directory);
+
+        files = new Path[fanOut];
+        fileNames = new String[fanOut];
+
+        for (int i = 0; i < fanOut; i++) {
+            files[i] = Files.createFile(directory.resolve("file" + i));
+            fileNames[i] = files[i].toString();
+        }
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        return Files.exists(files[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean parseAndLookup() {
+        return Files.exists(fileSystem.getPath(fileNames[nextIndex()]));
+    }
+
+    @Benchmark
+    public BasicFileAttributes readAttributes() throws IOException {
+        return Files.readAttributes(files[nextIndex()], BasicFileAttributes.class);
+    }
+
+    @Benchmark
+    public void createAndDeleteFile() throws IOException {
+        Path file = Files.createFile(directory.resolve("created"));
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void createAndDeleteDirectory() throws IOException {
+        Path created = Files.createDirectory(directory.resolve("created"));
+        Files.delete(created);
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) % fanOut;
+
+        return index;
+    }
+}
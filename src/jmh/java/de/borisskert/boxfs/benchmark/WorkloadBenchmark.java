@@ -0,0 +1,146 @@
+package de.borisskert.boxfs.benchmark;
+
+import de.borisskert.boxfs.BoxFs;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WorkloadBenchmark extends FileSystemBenchmark {
+    private static final int SMALL_FILES = 1000;
+    private static final int SMALL_FILE_SIZE = 1024;
+    private static final int LARGE_FILE_SIZE = 64 * 1024 * 1024;
+    private static final int TREE_DEPTH = 64;
+    private static final int WALK_DIRECTORIES = 32;
+    private static final int WALK_FILES_PER_DIRECTORY = 32;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private byte[] smallContent;
+    private byte[] buffer;
+    private Path walkRoot;
+    private MessageDigest digest;
+    private int run;
+
+    @Override
+    protected void setup() throws IOException {
+        Random random = new Random(42);
+
+        smallContent = new byte[SMALL_FILE_SIZE];
+        random.nextBytes(smallContent);
+
+        buffer = new byte[BUFFER_SIZE];
+        random.nextBytes(buffer);
+
+        walkRoot = Files.createDirectory(workingDirectory.resolve("walk"));
+
+        for (int i = 0; i < WALK_DIRECTORIES; i++) {
+            Path directory = Files.createDirectory(walkRoot.resolve("directory" + i));
+
+            for (int j = 0; j < WALK_FILES_PER_DIRECTORY; j++) {
+                byte[] content = new byte[random.nextInt(4 * SMALL_FILE_SIZE)];
+                random.nextBytes(content);
+
+                Files.write(directory.resolve("file" + j), content);
+            }
+        }
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public long smallFileStorm() throws IOException {
+        Path directory = Files.createDirectory(workingDirectory.resolve("storm" + run++));
+        long total = 0;
+
+        for (int i = 0; i < SMALL_FILES; i++) {
+            Files.write(directory.resolve("file" + i), smallContent);
+        }
+
+        for (int i = 0; i < SMALL_FILES; i++) {
+            total += Files.readAllBytes(directory.resolve("file" + i)).length;
+        }
+
+        for (int i = 0; i < SMALL_FILES; i++) {
+            Files.delete(directory.resolve("file" + i));
+        }
+
+        Files.delete(directory);
+
+        return total;
+    }
+
+    @Benchmark
+    public long largeSequentialFile() throws IOException {
+        Path file = workingDirectory.resolve("large.bin");
+        long total = 0;
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int written = 0; written < LARGE_FILE_SIZE; written += BUFFER_SIZE) {
+                out.write(buffer);
+            }
+        }
+
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public Path deepTree() throws IOException {
+        Path top = workingDirectory.resolve("deep" + run++);
+        Path directory = top;
+
+        for (int i = 0; i < TREE_DEPTH; i++) {
+            directory = directory.resolve("level" + i);
+        }
+
+        Files.createDirectories(directory);
+        Path file = Files.write(directory.resolve("leaf.txt"), smallContent);
+
+        BoxFs.deleteTree(top);
+
+        return file;
+    }
+
+    @Benchmark
+    public byte[] walkAndHash() throws IOException {
+        digest.reset();
+
+        Files.walkFileTree(walkRoot, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                try (InputStream in = Files.newInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return digest.digest();
+    }
+}
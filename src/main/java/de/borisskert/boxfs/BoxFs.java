@@ -1,20 +1,177 @@
 package de.borisskert.boxfs;
 
-import java.nio.file.FileSystem;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.spi.FileSystemProvider;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 
 public class BoxFs {
     private BoxFs() {
     }
 
     public static FileSystem windows() {
-        return de.borisskert.boxfs.windows.BoxFsFileSystem.create();
+        return windows(BoxFsOptions.defaults());
+    }
+
+    public static FileSystem windows(Clock clock) {
+        return windows(BoxFsOptions.defaults().withClock(clock));
+    }
+
+    public static FileSystem windows(BoxFsOptions options) {
+        return de.borisskert.boxfs.windows.BoxFsFileSystem.create(options);
     }
 
     public static FileSystem macos() {
-        return de.borisskert.boxfs.macos.BoxFsFileSystem.create();
+        return macos(BoxFsOptions.defaults());
+    }
+
+    public static FileSystem macos(Clock clock) {
+        return macos(BoxFsOptions.defaults().withClock(clock));
+    }
+
+    public static FileSystem macos(BoxFsOptions options) {
+        return de.borisskert.boxfs.macos.BoxFsFileSystem.create(options);
     }
 
     public static FileSystem unix() {
-        return de.borisskert.boxfs.unix.BoxFsFileSystem.create();
+        return unix(BoxFsOptions.defaults());
+    }
+
+    public static FileSystem unix(Clock clock) {
+        return unix(BoxFsOptions.defaults().withClock(clock));
+    }
+
+    public static FileSystem unix(BoxFsOptions options) {
+        return de.borisskert.boxfs.unix.BoxFsFileSystem.create(options);
+    }
+
+    public static BoxFsSnapshot snapshot(FileSystem fileSystem) {
+        if (fileSystem instanceof de.borisskert.boxfs.windows.BoxFsFileSystem) {
+            return ((de.borisskert.boxfs.windows.BoxFsFileSystem) fileSystem).snapshot();
+        }
+
+        if (fileSystem instanceof de.borisskert.boxfs.macos.BoxFsFileSystem) {
+            return ((de.borisskert.boxfs.macos.BoxFsFileSystem) fileSystem).snapshot();
+        }
+
+        if (fileSystem instanceof de.borisskert.boxfs.unix.BoxFsFileSystem) {
+            return ((de.borisskert.boxfs.unix.BoxFsFileSystem) fileSystem).snapshot();
+        }
+
+        throw new IllegalArgumentException("Not a BoxFs file system: " + fileSystem);
+    }
+
+    public static BoxFsMetrics metrics(FileSystem fileSystem) {
+        if (fileSystem instanceof de.borisskert.boxfs.windows.BoxFsFileSystem) {
+            return ((de.borisskert.boxfs.windows.BoxFsFileSystem) fileSystem).metrics();
+        }
+
+        if (fileSystem instanceof de.borisskert.boxfs.macos.BoxFsFileSystem) {
+            return ((de.borisskert.boxfs.macos.BoxFsFileSystem) fileSystem).metrics();
+        }
+
+        if (fileSystem instanceof de.borisskert.boxfs.unix.BoxFsFileSystem) {
+            return ((de.borisskert.boxfs.unix.BoxFsFileSystem) fileSystem).metrics();
+        }
+
+        throw new IllegalArgumentException("Not a BoxFs file system: " + fileSystem);
+    }
+
+    public static void deleteTree(Path path) throws IOException {
+        FileSystemProvider provider = path.getFileSystem().provider();
+
+        if (provider instanceof BoxFsTreeOperations) {
+            ((BoxFsTreeOperations) provider).deleteTree(path);
+        } else {
+            walkAndDelete(path);
+        }
+    }
+
+    public static void copyTree(Path source, Path target, CopyOption... options) throws IOException {
+        FileSystemProvider provider = source.getFileSystem().provider();
+
+        if (provider instanceof BoxFsTreeOperations && provider == target.getFileSystem().provider()) {
+            ((BoxFsTreeOperations) provider).copyTree(source, target, options);
+        } else {
+            walkAndCopy(source, target, options);
+        }
+    }
+
+    private static void walkAndDelete(Path path) throws IOException {
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void walkAndCopy(Path source, Path target, CopyOption... options) throws IOException {
+        if (Files.exists(target)) {
+            if (!Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING)) {
+                throw new FileAlreadyExistsException(target.toString());
+            }
+
+            walkAndDelete(target);
+        }
+
+        Deque<Path> targetDirectories = new ArrayDeque<>();
+
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path targetDirectory = targetDirectories.isEmpty()
+                        ? target
+                        : resolveName(targetDirectories.peek(), dir.getFileName());
+
+                Files.createDirectory(targetDirectory);
+                targetDirectories.push(targetDirectory);
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path targetFile = targetDirectories.isEmpty()
+                        ? target
+                        : resolveName(targetDirectories.peek(), file.getFileName());
+
+                Files.copy(file, targetFile);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+
+                targetDirectories.pop();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static Path resolveName(Path directory, Path name) {
+        if (directory.getFileSystem() == name.getFileSystem()) {
+            return directory.resolve(name);
+        }
+
+        return directory.resolve(name.toString());
     }
 }
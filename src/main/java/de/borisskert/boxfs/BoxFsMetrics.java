@@ -0,0 +1,157 @@
+package de.borisskert.boxfs;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class BoxFsMetrics {
+    private static final BoxFsTreeStatistics EMPTY_TREE = new BoxFsTreeStatistics(0, 0, 0, 0);
+
+    private final boolean enabled;
+    private final Supplier<BoxFsTreeStatistics> tree;
+    private final Map<BoxFsOperation, BoxFsOperationMetrics> operations = new EnumMap<>(BoxFsOperation.class);
+    private volatile ObjectName registeredName;
+
+    private BoxFsMetrics(boolean enabled, Supplier<BoxFsTreeStatistics> tree) {
+        this.enabled = enabled;
+        this.tree = tree;
+
+        for (BoxFsOperation operation : BoxFsOperation.values()) {
+            operations.put(operation, new BoxFsOperationMetrics(operation));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void record(BoxFsOperation operation, long start) {
+        record(operation, start, 0L);
+    }
+
+    public void record(BoxFsOperation operation, long start, long bytes) {
+        if (enabled) {
+            operations.get(operation).record(System.nanoTime() - start, Math.max(bytes, 0L));
+        }
+    }
+
+    public BoxFsOperationMetrics operation(BoxFsOperation operation) {
+        return operations.get(operation);
+    }
+
+    public BoxFsTreeStatistics tree() {
+        return enabled ? tree.get() : EMPTY_TREE;
+    }
+
+    public void reset() {
+        operations.values().forEach(BoxFsOperationMetrics::reset);
+    }
+
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        if (registeredName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + registeredName);
+        }
+
+        ObjectName objectName = new ObjectName("de.borisskert.boxfs", "name", ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), objectName);
+        registeredName = objectName;
+
+        return objectName;
+    }
+
+    public synchronized void unregisterMBean() {
+        ObjectName objectName = registeredName;
+        if (objectName == null) {
+            return;
+        }
+
+        registeredName = null;
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + objectName, e);
+        }
+    }
+
+    public static BoxFsMetrics enabled(Supplier<BoxFsTreeStatistics> tree) {
+        return new BoxFsMetrics(true, tree);
+    }
+
+    public static BoxFsMetrics disabled() {
+        return new BoxFsMetrics(false, () -> EMPTY_TREE);
+    }
+
+    private class MXBean implements BoxFsMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounts() {
+            return collect(BoxFsOperationMetrics::count);
+        }
+
+        @Override
+        public Map<String, Long> getBytes() {
+            return collect(BoxFsOperationMetrics::bytes);
+        }
+
+        @Override
+        public Map<String, Long> getMedianNanos() {
+            return collect(operation -> operation.latency().percentile(0.5));
+        }
+
+        @Override
+        public Map<String, Long> getP99Nanos() {
+            return collect(operation -> operation.latency().percentile(0.99));
+        }
+
+        @Override
+        public long getDirectoryCount() {
+            return tree().directories();
+        }
+
+        @Override
+        public long getFileCount() {
+            return tree().files();
+        }
+
+        @Override
+        public long getNodeCount() {
+            return tree().nodes();
+        }
+
+        @Override
+        public long getBytesStored() {
+            return tree().bytesStored();
+        }
+
+        @Override
+        public int getTreeDepth() {
+            return tree().depth();
+        }
+
+        @Override
+        public void reset() {
+            BoxFsMetrics.this.reset();
+        }
+
+        private Map<String, Long> collect(Function<BoxFsOperationMetrics, Long> value) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            operations.forEach((operation, metrics) -> values.put(operation.name(), value.apply(metrics)));
+
+            return values;
+        }
+    }
+}
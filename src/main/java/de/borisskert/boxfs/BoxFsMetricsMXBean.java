@@ -0,0 +1,25 @@
+package de.borisskert.boxfs;
+
+import java.util.Map;
+
+public interface BoxFsMetricsMXBean {
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getBytes();
+
+    Map<String, Long> getMedianNanos();
+
+    Map<String, Long> getP99Nanos();
+
+    long getDirectoryCount();
+
+    long getFileCount();
+
+    long getNodeCount();
+
+    long getBytesStored();
+
+    int getTreeDepth();
+
+    void reset();
+}
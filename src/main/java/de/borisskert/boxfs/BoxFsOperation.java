@@ -0,0 +1,13 @@
+package de.borisskert.boxfs;
+
+public enum BoxFsOperation {
+    OPEN,
+    READ,
+    WRITE,
+    CREATE_DIRECTORY,
+    DELETE,
+    MOVE,
+    COPY,
+    LIST,
+    READ_ATTRIBUTES
+}
@@ -0,0 +1,49 @@
+package de.borisskert.boxfs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class BoxFsOperationMetrics {
+    private final BoxFsOperation operation;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final BoxFsHistogram latency = new BoxFsHistogram();
+
+    BoxFsOperationMetrics(BoxFsOperation operation) {
+        this.operation = operation;
+    }
+
+    void record(long elapsedNanos, long transferredBytes) {
+        count.increment();
+        bytes.add(transferredBytes);
+        nanos.add(elapsedNanos);
+        latency.record(elapsedNanos);
+    }
+
+    void reset() {
+        count.reset();
+        bytes.reset();
+        nanos.reset();
+        latency.reset();
+    }
+
+    public BoxFsOperation operation() {
+        return operation;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    public long totalNanos() {
+        return nanos.sum();
+    }
+
+    public BoxFsHistogram latency() {
+        return latency;
+    }
+}
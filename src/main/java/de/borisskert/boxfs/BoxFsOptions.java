@@ -0,0 +1,72 @@
+package de.borisskert.boxfs;
+
+import java.time.Clock;
+import java.util.Objects;
+
+public class BoxFsOptions {
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final BoxFsOptions DEFAULTS = new BoxFsOptions(BoxFsStorage.HEAP, BoxFsTreeEngine.CONCURRENT, false, UNLIMITED, Clock.systemUTC());
+
+    private final BoxFsStorage storage;
+    private final BoxFsTreeEngine treeEngine;
+    private final boolean metricsEnabled;
+    private final long capacity;
+    private final Clock clock;
+
+    private BoxFsOptions(BoxFsStorage storage, BoxFsTreeEngine treeEngine, boolean metricsEnabled, long capacity, Clock clock) {
+        this.storage = storage;
+        this.treeEngine = treeEngine;
+        this.metricsEnabled = metricsEnabled;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    public BoxFsStorage storage() {
+        return storage;
+    }
+
+    public BoxFsTreeEngine treeEngine() {
+        return treeEngine;
+    }
+
+    public boolean metricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    public BoxFsOptions withStorage(BoxFsStorage storage) {
+        return new BoxFsOptions(Objects.requireNonNull(storage), treeEngine, metricsEnabled, capacity, clock);
+    }
+
+    public BoxFsOptions withTreeEngine(BoxFsTreeEngine treeEngine) {
+        return new BoxFsOptions(storage, Objects.requireNonNull(treeEngine), metricsEnabled, capacity, clock);
+    }
+
+    public BoxFsOptions withMetrics(boolean metricsEnabled) {
+        return new BoxFsOptions(storage, treeEngine, metricsEnabled, capacity, clock);
+    }
+
+    public BoxFsOptions withCapacity(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+
+        return new BoxFsOptions(storage, treeEngine, metricsEnabled, capacity, clock);
+    }
+
+    public BoxFsOptions withClock(Clock clock) {
+        return new BoxFsOptions(storage, treeEngine, metricsEnabled, capacity, Objects.requireNonNull(clock));
+    }
+
+    public static BoxFsOptions defaults() {
+        return DEFAULTS;
+    }
+}
@@ -0,0 +1,5 @@
+package de.borisskert.boxfs;
+
+public interface BoxFsSnapshot {
+    void restore();
+}
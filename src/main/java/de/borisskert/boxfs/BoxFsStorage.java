@@ -0,0 +1,6 @@
+package de.borisskert.boxfs;
+
+public enum BoxFsStorage {
+    HEAP,
+    OFF_HEAP
+}
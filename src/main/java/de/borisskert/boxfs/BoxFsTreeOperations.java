@@ -0,0 +1,11 @@
+package de.borisskert.boxfs;
+
+import java.io.IOException;
+import java.nio.file.CopyOption;
+import java.nio.file.Path;
+
+public interface BoxFsTreeOperations {
+    void deleteTree(Path path) throws IOException;
+
+    void copyTree(Path source, Path target, CopyOption... options) throws IOException;
+}
@@ -0,0 +1,41 @@
+package de.borisskert.boxfs;
+
+import java.util.function.IntSupplier;
+
+public class BoxFsTreeStatistics {
+    private final long directories;
+    private final long files;
+    private final long bytesStored;
+    private final IntSupplier depth;
+
+    public BoxFsTreeStatistics(long directories, long files, long bytesStored, int depth) {
+        this(directories, files, bytesStored, () -> depth);
+    }
+
+    public BoxFsTreeStatistics(long directories, long files, long bytesStored, IntSupplier depth) {
+        this.directories = directories;
+        this.files = files;
+        this.bytesStored = bytesStored;
+        this.depth = depth;
+    }
+
+    public long directories() {
+        return directories;
+    }
+
+    public long files() {
+        return files;
+    }
+
+    public long nodes() {
+        return directories + files;
+    }
+
+    public long bytesStored() {
+        return bytesStored;
+    }
+
+    public int depth() {
+        return depth.getAsInt();
+    }
+}
@@ -0,0 +1,55 @@
+package de.borisskert.boxfs;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoxFsVirtualClock extends Clock {
+    private final AtomicReference<Instant> instant;
+    private final ZoneId zone;
+
+    private BoxFsVirtualClock(AtomicReference<Instant> instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public BoxFsVirtualClock withZone(ZoneId zone) {
+        return new BoxFsVirtualClock(instant, Objects.requireNonNull(zone));
+    }
+
+    @Override
+    public Instant instant() {
+        return instant.get();
+    }
+
+    @Override
+    public long millis() {
+        return instant.get().toEpochMilli();
+    }
+
+    public Instant advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Cannot advance by a negative duration: " + duration);
+        }
+
+        return instant.updateAndGet(current -> current.plus(duration));
+    }
+
+    public void set(Instant instant) {
+        this.instant.set(Objects.requireNonNull(instant));
+    }
+
+    public static BoxFsVirtualClock startingAt(Instant start) {
+        return new BoxFsVirtualClock(new AtomicReference<>(Objects.requireNonNull(start)), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,401 @@
+package de.borisskert.boxfs.macos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class BoxFsContent {
+    static final int PAGE_SIZE = 16 * 1024;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final ByteBuffer ZEROS = ByteBuffer.allocate(PAGE_SIZE).asReadOnlyBuffer();
+
+    private final BoxFsPageAllocator allocator;
+    private final List<BoxFsPage> pages = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long size = 0;
+
+    BoxFsContent(BoxFsPageAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long append(ByteBuffer src) throws IOException {
+        allocator.enter();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+
+        try {
+            long position = size;
+            return position + writeAt(position, src);
+        } finally {
+            writeLock.unlock();
+            allocator.exit();
+        }
+    }
+
+    int write(long position, ByteBuffer src) throws IOException {
+        allocator.enter();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+
+        try {
+            return writeAt(position, src);
+        } finally {
+            writeLock.unlock();
+            allocator.exit();
+        }
+    }
+
+    void truncate(long newSize) throws IOException {
+        allocator.enter();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+
+        try {
+            truncateTo(newSize);
+        } finally {
+            writeLock.unlock();
+            allocator.exit();
+        }
+    }
+
+    int read(long position, ByteBuffer dst) {
+        allocator.enter();
+        Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            return readAt(position, dst);
+        } finally {
+            readLock.unlock();
+            allocator.exit();
+        }
+    }
+
+    long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        allocator.enter();
+
+        try {
+            long end = position + Math.min(count, size - position);
+            long current = position;
+
+            while (current < end) {
+                BoxFsPage page;
+                int offset;
+                int chunk;
+
+                Lock readLock = lock.readLock();
+                readLock.lock();
+
+                try {
+                    if (current >= size) {
+                        break;
+                    }
+
+                    // shared pages are copied on write, so the chunk stays stable while the target writes it
+                    page = pages.get(pageIndex(current)).share();
+                    offset = pageOffset(current);
+                    chunk = (int) Math.min(Math.min(end, size) - current, page.capacity() - offset);
+                } finally {
+                    readLock.unlock();
+                }
+
+                int written;
+
+                try {
+                    written = target.write(view(page.buffer(), offset, chunk));
+                } finally {
+                    page.release(allocator);
+                }
+
+                current += written;
+
+                if (written < chunk) {
+                    break;
+                }
+            }
+
+            return current - position;
+        } finally {
+            allocator.exit();
+        }
+    }
+
+    long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        allocator.enter();
+
+        try {
+            long end = count > Long.MAX_VALUE - position ? Long.MAX_VALUE : position + count;
+            long current = position;
+            ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(PAGE_SIZE, end - position));
+
+            while (current < end) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), end - current));
+
+                int read = src.read(chunk);
+                if (read <= 0) {
+                    break;
+                }
+
+                chunk.flip();
+
+                Lock writeLock = lock.writeLock();
+                writeLock.lock();
+
+                try {
+                    writeAt(current, chunk);
+                } finally {
+                    writeLock.unlock();
+                }
+
+                current += read;
+            }
+
+            return current - position;
+        } finally {
+            allocator.exit();
+        }
+    }
+
+    byte[] toByteArray() {
+        allocator.enter();
+        Lock readLock = lock.readLock();
+        readLock.lock();
+
+        try {
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Content too large for a byte array: " + size);
+            }
+
+            byte[] bytes = new byte[(int) size];
+            readAt(0, ByteBuffer.wrap(bytes));
+
+            return bytes;
+        } finally {
+            readLock.unlock();
+            allocator.exit();
+        }
+    }
+
+    void copyFrom(BoxFsContent source) {
+        allocator.enter();
+
+        try {
+            List<BoxFsPage> sharedPages;
+            long sharedSize;
+
+            Lock readLock = source.lock.readLock();
+            readLock.lock();
+
+            try {
+                sharedPages = new ArrayList<>(source.pages.size());
+                source.pages.forEach(page -> sharedPages.add(page.share()));
+                sharedSize = source.size;
+            } finally {
+                readLock.unlock();
+            }
+
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+
+            try {
+                releasePages();
+
+                pages.addAll(sharedPages);
+                size = sharedSize;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            allocator.exit();
+        }
+    }
+
+    void release() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+
+        try {
+            releasePages();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int writeAt(long position, ByteBuffer src) throws IOException {
+        int length = src.remaining();
+        if (length == 0) {
+            return 0;
+        }
+
+        long end = position + length;
+        ensureCapacity(end);
+
+        long current = position;
+        while (src.hasRemaining()) {
+            ByteBuffer page = writablePage(pageIndex(current));
+            int offset = pageOffset(current);
+            int chunk = Math.min(src.remaining(), page.capacity() - offset);
+
+            ByteBuffer chunkOfSource = src.duplicate();
+            chunkOfSource.limit(chunkOfSource.position() + chunk);
+            view(page, offset, chunk).put(chunkOfSource);
+
+            src.position(src.position() + chunk);
+            current += chunk;
+        }
+
+        size = Math.max(size, end);
+        return length;
+    }
+
+    private void truncateTo(long newSize) throws IOException {
+        if (newSize >= size) {
+            return;
+        }
+
+        int keptPages = pageIndex(newSize + PAGE_SIZE - 1);
+        List<BoxFsPage> droppedPages = pages.subList(keptPages, pages.size());
+        droppedPages.forEach(page -> page.release(allocator));
+        droppedPages.clear();
+
+        int offset = pageOffset(newSize);
+        if (offset > 0) {
+            ByteBuffer lastPage = writablePage(keptPages - 1);
+            zero(lastPage, offset, lastPage.capacity() - offset);
+        }
+
+        size = newSize;
+    }
+
+    private int readAt(long position, ByteBuffer dst) {
+        if (position >= size) {
+            return -1;
+        }
+
+        int length = (int) Math.min(dst.remaining(), size - position);
+        int remaining = length;
+        long current = position;
+
+        while (remaining > 0) {
+            ByteBuffer page = pages.get(pageIndex(current)).buffer();
+            int offset = pageOffset(current);
+            int chunk = Math.min(remaining, page.capacity() - offset);
+
+            dst.put(view(page, offset, chunk));
+            current += chunk;
+            remaining -= chunk;
+        }
+
+        return length;
+    }
+
+    private void releasePages() {
+        pages.forEach(page -> page.release(allocator));
+        pages.clear();
+        size = 0;
+    }
+
+    private void ensureCapacity(long capacity) throws IOException {
+        if (capacity <= PAGE_SIZE) {
+            growFirstPage((int) capacity);
+            return;
+        }
+
+        int missing = pageIndex(capacity + PAGE_SIZE - 1) - Math.max(pages.size(), 1);
+        ByteBuffer[] added = allocator.allocate(Math.max(missing, 0), PAGE_SIZE);
+
+        try {
+            growFirstPage(PAGE_SIZE);
+        } catch (IOException | RuntimeException | Error e) {
+            for (ByteBuffer page : added) {
+                allocator.release(page);
+            }
+
+            throw e;
+        }
+
+        for (ByteBuffer page : added) {
+            pages.add(new BoxFsPage(page));
+        }
+    }
+
+    private void growFirstPage(int capacity) throws IOException {
+        if (pages.isEmpty()) {
+            pages.add(new BoxFsPage(allocator.allocate(Math.min(PAGE_SIZE, Math.max(INITIAL_CAPACITY, capacity)))));
+            return;
+        }
+
+        BoxFsPage first = pages.get(0);
+        if (first.capacity() >= capacity) {
+            return;
+        }
+
+        int newCapacity = first.capacity();
+        while (newCapacity < capacity) {
+            newCapacity = Math.min(PAGE_SIZE, newCapacity * 2);
+        }
+
+        if (first.isShared()) {
+            ByteBuffer grown = allocator.allocate(newCapacity);
+            view(grown, 0, first.capacity()).put(view(first.buffer(), 0, first.capacity()));
+
+            pages.set(0, new BoxFsPage(grown));
+            first.release(allocator);
+        } else {
+            pages.set(0, new BoxFsPage(allocator.resize(first.buffer(), newCapacity)));
+        }
+    }
+
+    private ByteBuffer writablePage(int index) throws IOException {
+        BoxFsPage page = pages.get(index);
+
+        if (page.isShared()) {
+            ByteBuffer copy = allocator.allocate(page.capacity());
+            view(copy, 0, page.capacity()).put(view(page.buffer(), 0, page.capacity()));
+
+            pages.set(index, new BoxFsPage(copy));
+            page.release(allocator);
+
+            return copy;
+        }
+
+        return page.buffer();
+    }
+
+    static void zero(ByteBuffer page, int offset, int length) {
+        ByteBuffer target = view(page, offset, length);
+
+        while (target.hasRemaining()) {
+            ByteBuffer zeros = ZEROS.duplicate();
+            zeros.limit(Math.min(zeros.capacity(), target.remaining()));
+            target.put(zeros);
+        }
+    }
+
+    private static ByteBuffer view(ByteBuffer page, int offset, int length) {
+        ByteBuffer view = page.duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+
+        return view;
+    }
+
+    private static int pageIndex(long position) {
+        return (int) (position / PAGE_SIZE);
+    }
+
+    private static int pageOffset(long position) {
+        return (int) (position % PAGE_SIZE);
+    }
+}
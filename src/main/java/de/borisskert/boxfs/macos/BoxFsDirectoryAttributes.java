@@ -1,30 +1,13 @@
 package de.borisskert.boxfs.macos;
 
 import java.nio.file.attribute.FileTime;
-import java.nio.file.attribute.GroupPrincipal;
 import java.nio.file.attribute.PosixFilePermission;
-import java.nio.file.attribute.UserPrincipal;
 import java.util.HashSet;
 import java.util.Set;
 
 class BoxFsDirectoryAttributes extends BoxFsAttributes {
-    public BoxFsDirectoryAttributes() {
-        super(defaultDirectoryPermissions());
-    }
-
-    @Override
-    public FileTime lastModifiedTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime lastAccessTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime creationTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
+    public BoxFsDirectoryAttributes(FileTime now) {
+        super(defaultDirectoryPermissions(), now);
     }
 
     @Override
@@ -44,27 +27,17 @@ class BoxFsDirectoryAttributes extends BoxFsAttributes {
 
     @Override
     public boolean isOther() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return false;
     }
 
     @Override
     public long size() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return 0;
     }
 
     @Override
     public Object fileKey() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public UserPrincipal owner() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public GroupPrincipal group() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return null;
     }
 
     private static Set<PosixFilePermission> defaultDirectoryPermissions() {
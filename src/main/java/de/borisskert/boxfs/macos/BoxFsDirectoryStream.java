@@ -1,34 +1,74 @@
 package de.borisskert.boxfs.macos;
 
+import de.borisskert.boxfs.BoxFsMetrics;
+import de.borisskert.boxfs.BoxFsOperation;
+
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 class BoxFsDirectoryStream implements DirectoryStream<Path> {
 
     private final Path directoryPath;
-    private final BoxFsNode fileTree;
+    private final BoxFsNode directory;
+    private final Filter<? super Path> filter;
+    private final BoxFsMetrics metrics;
+    private final long start;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final AtomicBoolean iteratorReturned = new AtomicBoolean(false);
 
-    public BoxFsDirectoryStream(Path directoryPath, BoxFsNode fileTree) {
+    public BoxFsDirectoryStream(Path directoryPath, BoxFsNode directory, Filter<? super Path> filter, BoxFsMetrics metrics, long start) {
         this.directoryPath = directoryPath;
-        this.fileTree = fileTree;
+        this.directory = directory;
+        this.filter = filter;
+        this.metrics = metrics;
+        this.start = start;
     }
 
     @Override
     public Iterator<Path> iterator() {
-        Collection<String> children = fileTree.readNode(directoryPath)
-                .map(BoxFsNode::children)
-                .orElseThrow(() -> new RuntimeException("Not yet implemented"));
+        return entries().iterator();
+    }
 
-        return children.stream()
-                .map(directoryPath::resolve)
-                .iterator();
+    @Override
+    public Spliterator<Path> spliterator() {
+        return entries().spliterator();
     }
 
     @Override
     public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            metrics.record(BoxFsOperation.LIST, start);
+        }
+    }
+
+    private Stream<Path> entries() {
+        if (closed.get()) {
+            throw new IllegalStateException("Directory stream is closed");
+        }
+
+        if (!iteratorReturned.compareAndSet(false, true)) {
+            throw new IllegalStateException("Iterator already obtained");
+        }
+
+        BoxFsFileSystem fileSystem = (BoxFsFileSystem) directoryPath.getFileSystem();
+        String prefix = BoxFsPaths.resolve(directoryPath.toString(), "");
+
+        return directory.childNames()
+                .<Path>map(name -> new BoxFsPath(fileSystem, prefix + name))
+                .filter(this::accept);
+    }
 
+    private boolean accept(Path entry) {
+        try {
+            return filter.accept(entry);
+        } catch (IOException e) {
+            throw new DirectoryIteratorException(e);
+        }
     }
 }
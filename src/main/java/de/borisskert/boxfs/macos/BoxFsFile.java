@@ -1,18 +1,26 @@
 package de.borisskert.boxfs.macos;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 class BoxFsFile implements BoxFsNode {
-    private byte[] content = new byte[0];
+    private final BoxFsContent content;
+    private final BoxFsLockTable lockTable = new BoxFsLockTable();
+    private int openChannels = 0;
+    private boolean unlinked = false;
 
-    private final String name;
-    private final BoxFsDirectory parent;
+    private volatile String name;
+    private volatile BoxFsDirectory parent;
     private final BoxFsFileSystem fileSystem;
     private final BoxFsFileAttributes attributes;
     private final BoxFsFileAttributeView view;
@@ -21,7 +29,8 @@ class BoxFsFile implements BoxFsNode {
         this.name = name;
         this.parent = parent;
         this.fileSystem = fileSystem;
-        this.attributes = new BoxFsFileAttributes(() -> (long) content.length);
+        this.content = new BoxFsContent(fileSystem.pageAllocator());
+        this.attributes = new BoxFsFileAttributes(content::size, fileSystem.now());
         this.view = new BoxFsFileAttributeView(this.attributes);
     }
 
@@ -30,22 +39,47 @@ class BoxFsFile implements BoxFsNode {
     // -----------------------------------------------------------------------------------------------------
 
     @Override
-    public void createDirectory(Path path) throws IOException {
+    public void createDirectory(BoxFsPathSegments path, int index) throws IOException {
         throw new UnsupportedOperationException("Cannot create a directory inside a file");
     }
 
     @Override
-    public void createFile(Path path) throws IOException {
+    public void createFile(BoxFsPathSegments path, int index) throws IOException {
         throw new UnsupportedOperationException("Cannot create a file inside a file");
     }
 
     @Override
-    public void delete(Path path) throws IOException {
+    public void delete(BoxFsPathSegments path, int index) throws IOException {
         throw new UnsupportedOperationException("Cannot delete a file inside a file");
     }
 
     @Override
-    public boolean exists(Path path) {
+    public void attachChild(String name, BoxFsNode child) {
+        throw new UnsupportedOperationException("Cannot attach a child to a file");
+    }
+
+    @Override
+    public void detachChild(String name) {
+        throw new UnsupportedOperationException("Cannot detach a child from a file");
+    }
+
+    @Override
+    public void relink(BoxFsDirectory parent, String name) {
+        this.parent = parent;
+        this.name = name;
+    }
+
+    @Override
+    public BoxFsNode copy(BoxFsDirectory parent, String name) {
+        BoxFsFile copy = new BoxFsFile(fileSystem, parent, name);
+        copy.content.copyFrom(content);
+        copy.attributes.copyFrom(attributes);
+
+        return copy;
+    }
+
+    @Override
+    public boolean exists(BoxFsPathSegments path, int index) {
         throw new UnsupportedOperationException("Cannot check existence of a file inside a file");
     }
 
@@ -70,21 +104,107 @@ class BoxFsFile implements BoxFsNode {
     }
 
     @Override
-    public Optional<BoxFsNode> readNode(Path path) {
+    public Optional<BoxFsNode> readNode(BoxFsPathSegments path, int index) {
         throw new UnsupportedOperationException("Cannot get a child of a file");
     }
 
     @Override
-    public void writeContent(Path path, ByteBuffer buffer) {
-        byte[] incoming = new byte[buffer.remaining()];
-        buffer.get(incoming);
+    public void writeContent(BoxFsPathSegments path, int index, ByteBuffer buffer) {
+        try {
+            content.append(buffer);
+            modified();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int readContent(long position, ByteBuffer buffer) {
+        attributes.accessed(fileSystem.clock());
+        return content.read(position, buffer);
+    }
+
+    @Override
+    public int writeContent(long position, ByteBuffer buffer) throws IOException {
+        int written = content.write(position, buffer);
+        modified();
+
+        return written;
+    }
+
+    @Override
+    public long appendContent(ByteBuffer buffer) throws IOException {
+        long end = content.append(buffer);
+        modified();
+
+        return end;
+    }
+
+    @Override
+    public void truncateContent(long size) throws IOException {
+        content.truncate(size);
+        modified();
+    }
+
+    @Override
+    public long transferContentTo(long position, long count, WritableByteChannel target) throws IOException {
+        attributes.accessed(fileSystem.clock());
+        return content.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferContentFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        long transferred = content.transferFrom(src, position, count);
+        modified();
 
-        byte[] newContent = new byte[content.length + incoming.length];
+        return transferred;
+    }
+
+    @Override
+    public void copyContentFrom(BoxFsNode source) {
+        if (!(source instanceof BoxFsFile)) {
+            throw new UnsupportedOperationException("Cannot copy content from a directory");
+        }
+
+        content.copyFrom(((BoxFsFile) source).content);
+        modified();
+    }
+
+    @Override
+    public synchronized void retain() {
+        openChannels++;
+    }
+
+    @Override
+    public synchronized void release() {
+        openChannels--;
+        releaseContentIfUnused();
+    }
 
-        System.arraycopy(content, 0, newContent, 0, content.length);
-        System.arraycopy(incoming, 0, newContent, content.length, incoming.length);
+    @Override
+    public BoxFsLockTable lockTable() {
+        return lockTable;
+    }
 
-        content = newContent;
+    @Override
+    public synchronized void unlink() {
+        unlinked = true;
+        releaseContentIfUnused();
+    }
+
+    @Override
+    public long nodeCount() {
+        return 1;
+    }
+
+    @Override
+    public long fileCount() {
+        return 1;
+    }
+
+    @Override
+    public int height() {
+        return 0;
     }
 
     @Override
@@ -96,7 +216,7 @@ class BoxFsFile implements BoxFsNode {
 
     @Override
     public byte[] content() throws IOException {
-        return content;
+        return content.toByteArray();
     }
 
     @Override
@@ -111,6 +231,16 @@ class BoxFsFile implements BoxFsNode {
         throw new UnsupportedOperationException("Cannot get children of a file");
     }
 
+    @Override
+    public Collection<BoxFsNode> childNodes() {
+        throw new UnsupportedOperationException("Cannot get children of a file");
+    }
+
+    @Override
+    public Stream<String> childNames() {
+        throw new UnsupportedOperationException("Cannot get children of a file");
+    }
+
     @Override
     public Optional<BoxFsNode> parent() {
         return Optional.of(parent);
@@ -123,4 +253,15 @@ class BoxFsFile implements BoxFsNode {
                 parent.path().toString() + "/" + name
         );
     }
+
+    private void modified() {
+        attributes.modified(fileSystem.now());
+        fileSystem.watchRegistry().signal(parent, StandardWatchEventKinds.ENTRY_MODIFY, name);
+    }
+
+    private void releaseContentIfUnused() {
+        if (unlinked && openChannels == 0) {
+            content.release();
+        }
+    }
 }
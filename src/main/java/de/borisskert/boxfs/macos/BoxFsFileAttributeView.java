@@ -18,12 +18,12 @@ class BoxFsFileAttributeView implements PosixFileAttributeView {
 
     @Override
     public UserPrincipal getOwner() throws IOException {
-        throw new UnsupportedOperationException("Not implemented yet");
+        return attributes.owner();
     }
 
     @Override
     public void setOwner(UserPrincipal owner) throws IOException {
-        throw new UnsupportedOperationException("Not implemented yet");
+        attributes.setOwner(owner);
     }
 
     @Override
@@ -33,7 +33,7 @@ class BoxFsFileAttributeView implements PosixFileAttributeView {
 
     @Override
     public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) throws IOException {
-        throw new UnsupportedOperationException("Not implemented yet");
+        attributes.setTimes(lastModifiedTime, lastAccessTime, createTime);
     }
 
     @Override
@@ -43,6 +43,6 @@ class BoxFsFileAttributeView implements PosixFileAttributeView {
 
     @Override
     public void setGroup(GroupPrincipal group) throws IOException {
-        throw new UnsupportedOperationException("Not implemented yet");
+        attributes.setGroup(group);
     }
 }
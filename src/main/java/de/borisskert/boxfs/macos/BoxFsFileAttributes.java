@@ -1,9 +1,7 @@
 package de.borisskert.boxfs.macos;
 
 import java.nio.file.attribute.FileTime;
-import java.nio.file.attribute.GroupPrincipal;
 import java.nio.file.attribute.PosixFilePermission;
-import java.nio.file.attribute.UserPrincipal;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -11,26 +9,11 @@ import java.util.function.Supplier;
 class BoxFsFileAttributes extends BoxFsAttributes {
     private final Supplier<Long> sizeSupplier;
 
-    public BoxFsFileAttributes(Supplier<Long> sizeSupplier) {
-        super(defaultFilePermissions());
+    public BoxFsFileAttributes(Supplier<Long> sizeSupplier, FileTime now) {
+        super(defaultFilePermissions(), now);
         this.sizeSupplier = sizeSupplier;
     }
 
-    @Override
-    public FileTime lastModifiedTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime lastAccessTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime creationTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
     @Override
     public boolean isRegularFile() {
         return true;
@@ -48,7 +31,7 @@ class BoxFsFileAttributes extends BoxFsAttributes {
 
     @Override
     public boolean isOther() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return false;
     }
 
     @Override
@@ -58,17 +41,7 @@ class BoxFsFileAttributes extends BoxFsAttributes {
 
     @Override
     public Object fileKey() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public UserPrincipal owner() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public GroupPrincipal group() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return null;
     }
 
     private static Set<PosixFilePermission> defaultFilePermissions() {
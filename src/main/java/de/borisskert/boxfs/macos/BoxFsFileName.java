@@ -1,12 +1,17 @@
 package de.borisskert.boxfs.macos;
 
+import java.util.Locale;
 import java.util.Objects;
 
 public class BoxFsFileName {
     private final String name;
+    private final String folded;
+    private final int hash;
 
     private BoxFsFileName(String name) {
         this.name = name;
+        this.folded = fold(name);
+        this.hash = Objects.hashCode(folded);
     }
 
     public String name() {
@@ -15,25 +20,26 @@ public class BoxFsFileName {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BoxFsFileName boxFsFileName = (BoxFsFileName) o;
-        return Objects.equals(toLowerCase(name), toLowerCase(boxFsFileName.name));
-    }
-
-    private static String toLowerCase(String name) {
-        if (name == null) {
-            return null;
-        }
-
-        return name.toLowerCase();
+        return hash == boxFsFileName.hash && Objects.equals(folded, boxFsFileName.folded);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(toLowerCase(name));
+        return hash;
     }
 
     public static BoxFsFileName of(String name) {
         return new BoxFsFileName(name);
     }
+
+    static String fold(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        return name.toLowerCase(Locale.ROOT);
+    }
 }
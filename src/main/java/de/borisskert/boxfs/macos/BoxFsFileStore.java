@@ -0,0 +1,130 @@
+package de.borisskert.boxfs.macos;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemException;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileStoreAttributeView;
+import java.util.concurrent.atomic.AtomicLong;
+
+class BoxFsFileStore extends FileStore {
+    private static final String NAME = "boxfs";
+
+    private final long capacity;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicLong files = new AtomicLong();
+
+    BoxFsFileStore(long capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String type() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public long getTotalSpace() {
+        return capacity;
+    }
+
+    @Override
+    public long getUsableSpace() {
+        return getUnallocatedSpace();
+    }
+
+    @Override
+    public long getUnallocatedSpace() {
+        return capacity - allocatedBytes.get();
+    }
+
+    @Override
+    public boolean supportsFileAttributeView(Class<? extends FileAttributeView> type) {
+        return type.isAssignableFrom(BoxFsFileAttributeView.class);
+    }
+
+    @Override
+    public boolean supportsFileAttributeView(String name) {
+        return "basic".equals(name) || "posix".equals(name);
+    }
+
+    @Override
+    public <V extends FileStoreAttributeView> V getFileStoreAttributeView(Class<V> type) {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws IOException {
+        switch (attribute) {
+            case "totalSpace":
+                return getTotalSpace();
+            case "usableSpace":
+                return getUsableSpace();
+            case "unallocatedSpace":
+                return getUnallocatedSpace();
+            case "nodeCount":
+                return nodeCount();
+            default:
+                throw new UnsupportedOperationException("'" + attribute + "' not recognized");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+
+    long nodeCount() {
+        return nodes.get();
+    }
+
+    long fileCount() {
+        return files.get();
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    void reserve(long bytes) throws IOException {
+        long allocated;
+
+        do {
+            allocated = allocatedBytes.get();
+
+            if (bytes > capacity - allocated) {
+                throw new FileSystemException(null, null, "No space left on device");
+            }
+        } while (!allocatedBytes.compareAndSet(allocated, allocated + bytes));
+    }
+
+    void free(long bytes) {
+        allocatedBytes.addAndGet(-bytes);
+    }
+
+    void addNodes(BoxFsNode node) {
+        nodes.addAndGet(node.nodeCount());
+        files.addAndGet(node.fileCount());
+    }
+
+    void removeNodes(BoxFsNode node) {
+        nodes.addAndGet(-node.nodeCount());
+        files.addAndGet(-node.fileCount());
+    }
+
+    void resetNodes(long nodeCount, long fileCount) {
+        nodes.set(nodeCount);
+        files.set(fileCount);
+    }
+}
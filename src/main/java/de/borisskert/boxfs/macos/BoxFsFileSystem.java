@@ -1,21 +1,47 @@
 package de.borisskert.boxfs.macos;
 
+import de.borisskert.boxfs.BoxFsMetrics;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsSnapshot;
+import de.borisskert.boxfs.BoxFsTreeEngine;
+
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.GroupPrincipal;
+import java.nio.file.attribute.UserPrincipal;
 import java.nio.file.attribute.UserPrincipalLookupService;
+import java.time.Clock;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BoxFsFileSystem extends FileSystem {
     private static final String SEPARATOR = "/";
 
     private final AtomicBoolean isOpen = new AtomicBoolean(true);
-    private final BoxFsNode fileTree = BoxFsNode.newTree(this);
-    private final BoxFsFileSystemProvider provider = new BoxFsFileSystemProvider(fileTree, SEPARATOR);
+    private final BoxFsFileStore fileStore;
+    private final BoxFsPageAllocator pageAllocator;
+    private final BoxFsTreeEngine treeEngine;
+    private final Clock clock;
+    private final BoxFsTree fileTree;
+    private final BoxFsMetrics metrics;
+    private final BoxFsWatchRegistry watchRegistry = new BoxFsWatchRegistry();
+    private final BoxFsFileSystemProvider provider;
     private final BoxFsPath rootPath = new BoxFsRootPath(this);
 
+    private BoxFsFileSystem(BoxFsOptions options) {
+        this.fileStore = new BoxFsFileStore(options.capacity());
+        this.pageAllocator = new BoxFsQuotaPageAllocator(BoxFsPageAllocator.of(options.storage()), fileStore);
+        this.treeEngine = options.treeEngine();
+        this.clock = options.clock();
+        this.fileTree = BoxFsNode.newTree(this);
+        this.metrics = options.metricsEnabled() ? BoxFsMetrics.enabled(fileTree::statistics) : BoxFsMetrics.disabled();
+        this.provider = new BoxFsFileSystemProvider(fileTree, fileStore, metrics, SEPARATOR);
+    }
 
     @Override
     public FileSystemProvider provider() {
@@ -24,7 +50,11 @@ public class BoxFsFileSystem extends FileSystem {
 
     @Override
     public void close() throws IOException {
-        isOpen.set(false);
+        if (isOpen.compareAndSet(true, false)) {
+            metrics.unregisterMBean();
+            watchRegistry.clear();
+            pageAllocator.close();
+        }
     }
 
     @Override
@@ -49,7 +79,7 @@ public class BoxFsFileSystem extends FileSystem {
 
     @Override
     public Iterable<FileStore> getFileStores() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return Collections.singleton(fileStore);
     }
 
     @Override
@@ -69,18 +99,82 @@ public class BoxFsFileSystem extends FileSystem {
 
     @Override
     public UserPrincipalLookupService getUserPrincipalLookupService() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return new UserPrincipalLookupService() {
+            @Override
+            public UserPrincipal lookupPrincipalByName(String name) {
+                return new BoxFsPrincipal(name);
+            }
+
+            @Override
+            public GroupPrincipal lookupPrincipalByGroupName(String group) {
+                return new BoxFsPrincipal(group);
+            }
+        };
     }
 
     @Override
     public WatchService newWatchService() throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
+        if (!isOpen()) {
+            throw new ClosedFileSystemException();
+        }
+
+        return new BoxFsWatchService(this);
+    }
+
+    public BoxFsMetrics metrics() {
+        return metrics;
+    }
+
+    public BoxFsSnapshot snapshot() {
+        pageAllocator.ensureOpen();
+        return new BoxFsFileSystemSnapshot(this, fileTree.snapshot(), fileStore.nodeCount(), fileStore.fileCount());
+    }
+
+    public void restore(BoxFsSnapshot snapshot) {
+        if (!(snapshot instanceof BoxFsFileSystemSnapshot)
+                || ((BoxFsFileSystemSnapshot) snapshot).fileSystem() != this) {
+            throw new IllegalArgumentException("Snapshot was not taken from this file system");
+        }
+
+        pageAllocator.ensureOpen();
+        BoxFsFileSystemSnapshot fileSystemSnapshot = (BoxFsFileSystemSnapshot) snapshot;
+        fileStore.resetNodes(fileSystemSnapshot.nodeCount(), fileSystemSnapshot.fileCount());
+        fileTree.restore(((BoxFsFileSystemSnapshot) snapshot).rootDirectory());
+        watchRegistry.clear();
     }
 
     BoxFsNode getFileTree() {
         return fileTree;
     }
 
+    BoxFsWatchRegistry watchRegistry() {
+        return watchRegistry;
+    }
+
+    BoxFsFileStore fileStore() {
+        return fileStore;
+    }
+
+    Clock clock() {
+        return clock;
+    }
+
+    FileTime now() {
+        return FileTime.from(clock.instant());
+    }
+
+    BoxFsPageAllocator pageAllocator() {
+        return pageAllocator;
+    }
+
+    <K> Map<K, BoxFsNode> newChildren() {
+        if (treeEngine == BoxFsTreeEngine.PERSISTENT) {
+            return new BoxFsPersistentMap<>();
+        }
+
+        return new ConcurrentHashMap<>();
+    }
+
     BoxFsPath root() {
         return rootPath;
     }
@@ -90,6 +184,10 @@ public class BoxFsFileSystem extends FileSystem {
     }
 
     public static FileSystem create() {
-        return new BoxFsFileSystem();
+        return create(BoxFsOptions.defaults());
+    }
+
+    public static FileSystem create(BoxFsOptions options) {
+        return new BoxFsFileSystem(options);
     }
 }
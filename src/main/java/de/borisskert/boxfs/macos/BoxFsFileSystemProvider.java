@@ -1,10 +1,14 @@
 package de.borisskert.boxfs.macos;
 
+import de.borisskert.boxfs.BoxFsMetrics;
+import de.borisskert.boxfs.BoxFsOperation;
+import de.borisskert.boxfs.BoxFsTreeOperations;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
-import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -14,11 +18,15 @@ import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.*;
 
-class BoxFsFileSystemProvider extends FileSystemProvider {
-    private final BoxFsNode fileTree;
+class BoxFsFileSystemProvider extends FileSystemProvider implements BoxFsTreeOperations {
+    private final BoxFsTree fileTree;
+    private final BoxFsFileStore fileStore;
+    private final BoxFsMetrics metrics;
 
-    BoxFsFileSystemProvider(BoxFsNode fileTree, String separator) {
+    BoxFsFileSystemProvider(BoxFsTree fileTree, BoxFsFileStore fileStore, BoxFsMetrics metrics, String separator) {
         this.fileTree = fileTree;
+        this.fileStore = fileStore;
+        this.metrics = metrics;
     }
 
     @Override
@@ -43,129 +51,273 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
-        boolean create = options.contains(StandardOpenOption.CREATE);
-        boolean createNew = options.contains(StandardOpenOption.CREATE_NEW);
-        boolean write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
-
-        if (createNew || (create && Files.notExists(path))) {
-            checkAccess(path.getParent(), AccessMode.WRITE);
-            fileTree.createFile(path);
-        } else if (!fileTree.exists(path)) {
-            throw new NoSuchFileException(path.toString());
-        } else if (write) {
-            checkAccess(path, AccessMode.WRITE);
-        }
+        return newFileChannel(path, options, attrs);
+    }
+
+    @Override
+    public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+        long start = metrics.start();
+
+        try {
+            boolean create = options.contains(StandardOpenOption.CREATE);
+            boolean createNew = options.contains(StandardOpenOption.CREATE_NEW);
+            boolean write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
+            boolean append = options.contains(StandardOpenOption.APPEND);
+            boolean truncateExisting = options.contains(StandardOpenOption.TRUNCATE_EXISTING);
+
+            if (append && (truncateExisting || options.contains(StandardOpenOption.READ))) {
+                throw new IllegalArgumentException("APPEND cannot be combined with READ or TRUNCATE_EXISTING");
+            }
+
+            BoxFsLookup lookup = fileTree.resolve(path);
+            BoxFsNode file;
+
+            if (createNew || (create && !lookup.exists())) {
+                BoxFsNode parent = lookup.parent()
+                        .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+                checkAccess(parent, path, AccessMode.WRITE);
+                file = lookup.createFile();
+            } else {
+                file = lookup.node()
+                        .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+                if (write) {
+                    checkAccess(file, path, AccessMode.WRITE);
+                }
+            }
 
-        return new BoxFsByteChannel(path, fileTree);
+            BoxFsFileChannel channel = new BoxFsFileChannel(file, options, ((BoxFsFileSystem) path.getFileSystem()).pageAllocator(), metrics);
+
+            if (write && truncateExisting) {
+                channel.truncate(0);
+            }
+
+            return channel;
+        } finally {
+            metrics.record(BoxFsOperation.OPEN, start);
+        }
     }
 
     @Override
     public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
-        return new BoxFsDirectoryStream(dir, fileTree);
+        long start = metrics.start();
+
+        try {
+            BoxFsNode directory = fileTree.readNode(dir)
+                    .orElseThrow(() -> new NoSuchFileException(dir.toString()));
+
+            if (!directory.isDirectory()) {
+                throw new NotDirectoryException(dir.toString());
+            }
+
+            return new BoxFsDirectoryStream(dir, directory, filter, metrics, start);
+        } catch (IOException | RuntimeException e) {
+            metrics.record(BoxFsOperation.LIST, start);
+            throw e;
+        }
     }
 
     @Override
     public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
-        checkAccess(dir.getParent(), AccessMode.WRITE);
-        fileTree.createDirectory(dir);
+        long start = metrics.start();
+
+        try {
+            BoxFsLookup lookup = fileTree.resolve(dir);
+            BoxFsNode parent = lookup.parent()
+                    .orElseThrow(() -> new NoSuchFileException(dir.toString()));
+
+            checkAccess(parent, dir, AccessMode.WRITE);
+            lookup.createDirectory();
+        } finally {
+            metrics.record(BoxFsOperation.CREATE_DIRECTORY, start);
+        }
     }
 
     @Override
     public void delete(Path path) throws IOException {
-        fileTree.delete(path);
+        long start = metrics.start();
+
+        try {
+            fileTree.delete(path);
+        } finally {
+            metrics.record(BoxFsOperation.DELETE, start);
+        }
     }
 
     @Override
     public void copy(Path source, Path target, CopyOption... options) throws IOException {
-        if (source.equals(target)) {
-            return;
-        }
+        long start = metrics.start();
 
-        boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+        try {
+            if (source.equals(target)) {
+                return;
+            }
 
-        if (fileTree.exists(target)) {
-            if (replaceExisting) {
-                fileTree.delete(target);
+            boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+
+            if (fileTree.exists(target)) {
+                if (replaceExisting) {
+                    fileTree.delete(target);
+                }
             }
-        }
 
-        Optional<BoxFsNode> node = fileTree.readNode(source);
-        if (!node.isPresent()) {
-            throw new NoSuchFileException(source.toString());
-        }
+            Optional<BoxFsNode> node = fileTree.readNode(source);
+            if (!node.isPresent()) {
+                throw new NoSuchFileException(source.toString());
+            }
 
-        if (node.get().attributes().isDirectory()) {
-            fileTree.createDirectory(target);
-        } else {
-            copyFile(node.get(), target);
+            if (node.get().attributes().isDirectory()) {
+                fileTree.createDirectory(target);
+            } else {
+                copyFile(node.get(), target);
+            }
+        } finally {
+            metrics.record(BoxFsOperation.COPY, start);
         }
     }
 
     private void copyFile(BoxFsNode boxFsNode, Path target) throws IOException {
-        byte[] content = boxFsNode.content();
         fileTree.createFile(target);
-        fileTree.writeContent(target, ByteBuffer.wrap(content));
+        fileTree.readNode(target)
+                .orElseThrow(() -> new NoSuchFileException(target.toString()))
+                .copyContentFrom(boxFsNode);
     }
 
     @Override
     public void move(Path source, Path target, CopyOption... options) throws IOException {
-        if (source.equals(target)) {
-            return;
-        }
+        long start = metrics.start();
 
-        moveRecursively(source, target, options);
-    }
+        try {
+            if (source.equals(target)) {
+                return;
+            }
 
-    private void moveRecursively(Path source, Path target, CopyOption... options) throws IOException {
-        Optional<BoxFsNode> node = fileTree.readNode(source);
-        if (!node.isPresent()) {
-            throw new NoSuchFileException(source.toString());
-        }
+            BoxFsNode node = fileTree.readNode(source)
+                    .orElseThrow(() -> new NoSuchFileException(source.toString()));
+            BoxFsNode sourceParent = node.parent()
+                    .orElseThrow(() -> new FileSystemException(source.toString(), target.toString(), "Cannot move a root directory"));
+            BoxFsNode targetParent = readParentNode(target)
+                    .filter(BoxFsNode::isDirectory)
+                    .orElseThrow(() -> new NoSuchFileException(target.toString()));
 
-        boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+            if (isSameOrAncestor(node, targetParent)) {
+                throw new FileSystemException(source.toString(), target.toString(), "Cannot move a directory into itself");
+            }
 
-        if (node.get().attributes().isDirectory()) {
-            if (fileTree.exists(target)) {
-                if (replaceExisting) {
-                    if (fileTree.isDirectory(target) && hasChildren(target)) {
-                        throw new DirectoryNotEmptyException(target.toString());
-                    }
+            Optional<BoxFsNode> existing = fileTree.readNode(target);
 
-                    deleteRecursively(target);
-                } else {
+            if (existing.isPresent() && existing.get() != node) {
+                boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+
+                if (!replaceExisting) {
                     throw new FileAlreadyExistsException(target.toString());
                 }
-            }
 
-            fileTree.createDirectory(target);
-            try (DirectoryStream<Path> stream = newDirectoryStream(source, entry -> true)) {
-                for (Path entry : stream) {
-                    Path targetEntry = target.resolve(entry.getFileName().toString());
-                    moveRecursively(entry, targetEntry, options);
+                if (existing.get().isDirectory() && !existing.get().children().isEmpty()) {
+                    throw new DirectoryNotEmptyException(target.toString());
                 }
+
+                fileTree.delete(target);
             }
-        } else {
-            copy(source, target, options);
+
+            sourceParent.detachChild(source.getFileName().toString());
+            targetParent.attachChild(target.getFileName().toString(), node);
+
+            fileTree.invalidate(source, node);
+        } finally {
+            metrics.record(BoxFsOperation.MOVE, start);
         }
+    }
+
+    @Override
+    public void deleteTree(Path path) throws IOException {
+        long start = metrics.start();
+
+        try {
+            BoxFsNode node = fileTree.readNode(path)
+                    .orElseThrow(() -> new NoSuchFileException(path.toString()));
 
-        delete(source);
+            if (!node.parent().isPresent()) {
+                throw new FileSystemException(path.toString(), null, "Cannot delete a root directory");
+            }
+
+            fileTree.delete(path);
+        } finally {
+            metrics.record(BoxFsOperation.DELETE, start);
+        }
     }
 
-    private void deleteRecursively(Path path) throws IOException {
-        if (fileTree.isDirectory(path)) {
-            try (DirectoryStream<Path> stream = newDirectoryStream(path, entry -> true)) {
-                for (Path entry : stream) {
-                    deleteRecursively(entry);
+    @Override
+    public void copyTree(Path source, Path target, CopyOption... options) throws IOException {
+        long start = metrics.start();
+
+        try {
+            BoxFsNode node = fileTree.readNode(source)
+                    .orElseThrow(() -> new NoSuchFileException(source.toString()));
+            BoxFsNode targetParent = readParentNode(target)
+                    .filter(BoxFsNode::isDirectory)
+                    .orElseThrow(() -> new NoSuchFileException(target.toString()));
+
+            if (isSameOrAncestor(node, targetParent)) {
+                throw new FileSystemException(source.toString(), target.toString(), "Cannot copy a directory into itself");
+            }
+
+            Optional<BoxFsNode> existing = fileTree.readNode(target);
+
+            if (existing.isPresent()) {
+                if (existing.get() == node) {
+                    return;
+                }
+
+                if (!Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING)) {
+                    throw new FileAlreadyExistsException(target.toString());
+                }
+
+                if (isSameOrAncestor(existing.get(), node)) {
+                    throw new FileSystemException(source.toString(), target.toString(), "Cannot replace an ancestor of the source");
                 }
+
+                fileTree.delete(target);
             }
+
+            copyNode(node, targetParent, target.getFileName().toString());
+        } finally {
+            metrics.record(BoxFsOperation.COPY, start);
         }
-        delete(path);
     }
 
-    private boolean hasChildren(Path path) throws IOException {
-        try (DirectoryStream<Path> stream = newDirectoryStream(path, entry -> true)) {
-            return stream.iterator().hasNext();
+    private void copyNode(BoxFsNode source, BoxFsNode targetParent, String name) {
+        BoxFsNode copy = source.copy(null, name);
+
+        if (copy instanceof BoxFsDirectory) {
+            ((BoxFsDirectory) copy).materialize();
         }
+
+        fileStore.addNodes(copy);
+        targetParent.attachChild(name, copy);
+    }
+
+    private Optional<BoxFsNode> readParentNode(Path path) {
+        if (path.getNameCount() < 2) {
+            return Optional.of(fileTree);
+        }
+
+        return fileTree.readNode(path.subpath(0, path.getNameCount() - 1));
+    }
+
+    private static boolean isSameOrAncestor(BoxFsNode node, BoxFsNode descendant) {
+        Optional<BoxFsNode> current = Optional.of(descendant);
+
+        while (current.isPresent()) {
+            if (current.get() == node) {
+                return true;
+            }
+
+            current = current.get().parent();
+        }
+
+        return false;
     }
 
     @Override
@@ -192,18 +344,22 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public FileStore getFileStore(Path path) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public void checkAccess(Path path, AccessMode... modes) throws IOException {
         if (!fileTree.exists(path)) {
             throw new NoSuchFileException(path.toString());
         }
 
+        return fileStore;
+    }
+
+    @Override
+    public void checkAccess(Path path, AccessMode... modes) throws IOException {
         BoxFsNode boxFsNode = fileTree.readNode(path)
-                .orElseThrow(() -> new UnsupportedOperationException("Not yet implemented"));
+                .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+        checkAccess(boxFsNode, path, modes);
+    }
 
+    private void checkAccess(BoxFsNode boxFsNode, Path path, AccessMode... modes) throws IOException {
         BoxFsFileAttributeView view = boxFsNode.fileAttributeView();
 
         if (!isAllowed(view.readAttributes().permissions(), modes)) {
@@ -220,18 +376,29 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
-        if (fileTree.exists(path)) {
+        long start = metrics.start();
+
+        try {
             return fileTree.readNode(path).map(BoxFsNode::attributes)
                     .map(a -> (A) a)
-                    .orElseThrow(() -> new UnsupportedOperationException("Not yet implemented"));
-        } else {
-            throw new NoSuchFileException(path.toString());
+                    .orElseThrow(() -> new NoSuchFileException(path.toString()));
+        } finally {
+            metrics.record(BoxFsOperation.READ_ATTRIBUTES, start);
         }
     }
 
     @Override
     public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
-        throw new NoSuchFileException(path.toString());
+        long start = metrics.start();
+
+        try {
+            BoxFsNode node = fileTree.readNode(path)
+                    .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+            return BoxFsAttributesReader.read(node.attributes(), attributes);
+        } finally {
+            metrics.record(BoxFsOperation.READ_ATTRIBUTES, start);
+        }
     }
 
     @Override
@@ -278,9 +445,10 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
         if (set.isEmpty()) {
             set.add(StandardOpenOption.CREATE);
             set.add(StandardOpenOption.TRUNCATE_EXISTING);
-            set.add(StandardOpenOption.WRITE);
         }
 
+        set.add(StandardOpenOption.WRITE);
+
         return Channels.newOutputStream(newByteChannel(path, set));
     }
 }
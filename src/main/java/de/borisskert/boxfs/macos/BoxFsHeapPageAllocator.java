@@ -0,0 +1,37 @@
+package de.borisskert.boxfs.macos;
+
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedFileSystemException;
+
+class BoxFsHeapPageAllocator implements BoxFsPageAllocator {
+    private volatile boolean closed = false;
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        ensureOpen();
+        return ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public void release(ByteBuffer page) {
+    }
+
+    @Override
+    public void ensureOpen() {
+        if (closed) throw new ClosedFileSystemException();
+    }
+
+    @Override
+    public void enter() {
+        ensureOpen();
+    }
+
+    @Override
+    public void exit() {
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
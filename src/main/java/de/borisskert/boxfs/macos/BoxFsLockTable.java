@@ -0,0 +1,82 @@
+package de.borisskert.boxfs.macos;
+
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.FileLockInterruptionException;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.List;
+
+class BoxFsLockTable {
+    private final List<BoxFsFileLock> locks = new ArrayList<>();
+
+    synchronized FileLock lock(FileChannel channel, long position, long size, boolean shared) throws AsynchronousCloseException, FileLockInterruptionException {
+        BoxFsFileLock lock = new BoxFsFileLock(this, channel, position, size, shared);
+
+        while (isBlocked(lock)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileLockInterruptionException();
+            }
+
+            if (!channel.isOpen()) {
+                throw new AsynchronousCloseException();
+            }
+        }
+
+        locks.add(lock);
+        return lock;
+    }
+
+    synchronized FileLock tryLock(FileChannel channel, long position, long size, boolean shared) {
+        BoxFsFileLock lock = new BoxFsFileLock(this, channel, position, size, shared);
+
+        if (isBlocked(lock)) {
+            return null;
+        }
+
+        locks.add(lock);
+        return lock;
+    }
+
+    synchronized void release(BoxFsFileLock lock) {
+        if (locks.remove(lock)) {
+            lock.invalidate();
+            notifyAll();
+        }
+    }
+
+    synchronized void releaseAll(FileChannel channel) {
+        locks.removeIf(lock -> {
+            if (lock.channel() != channel) {
+                return false;
+            }
+
+            lock.invalidate();
+            return true;
+        });
+
+        notifyAll();
+    }
+
+    private boolean isBlocked(BoxFsFileLock candidate) {
+        for (BoxFsFileLock lock : locks) {
+            if (!lock.overlaps(candidate.position(), candidate.size())) {
+                continue;
+            }
+
+            if (lock.channel() == candidate.channel()) {
+                throw new OverlappingFileLockException();
+            }
+
+            if (!lock.isShared() || !candidate.isShared()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
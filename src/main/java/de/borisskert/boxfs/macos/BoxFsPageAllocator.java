@@ -0,0 +1,64 @@
+package de.borisskert.boxfs.macos;
+
+import de.borisskert.boxfs.BoxFsStorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+interface BoxFsPageAllocator {
+    static BoxFsPageAllocator of(BoxFsStorage storage) {
+        if (storage == BoxFsStorage.OFF_HEAP) {
+            return new BoxFsDirectPageAllocator();
+        }
+
+        return new BoxFsHeapPageAllocator();
+    }
+
+    ByteBuffer allocate(int capacity) throws IOException;
+
+    default ByteBuffer[] allocate(int count, int capacity) throws IOException {
+        ByteBuffer[] pages = new ByteBuffer[count];
+        int allocated = 0;
+
+        try {
+            for (; allocated < count; allocated++) {
+                pages[allocated] = allocate(capacity);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            for (int i = 0; i < allocated; i++) {
+                release(pages[i]);
+            }
+
+            throw e;
+        }
+
+        return pages;
+    }
+
+    default ByteBuffer resize(ByteBuffer page, int capacity) throws IOException {
+        ByteBuffer resized = allocate(capacity);
+
+        ByteBuffer content = page.duplicate();
+        content.clear();
+        content.limit(Math.min(page.capacity(), capacity));
+        resized.duplicate().put(content);
+
+        release(page);
+        return resized;
+    }
+
+    default ByteBuffer allocateMapped(int capacity) throws IOException {
+        ensureOpen();
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    void release(ByteBuffer page);
+
+    void ensureOpen();
+
+    void enter();
+
+    void exit();
+
+    void close();
+}
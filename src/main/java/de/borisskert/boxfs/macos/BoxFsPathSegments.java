@@ -0,0 +1,133 @@
+package de.borisskert.boxfs.macos;
+
+import java.nio.file.Path;
+
+class BoxFsPathSegments {
+    private static final String SEPARATOR = "/";
+
+    private final String root;
+    private final String[] names;
+    private final BoxFsFileName[] fileNames;
+    private final int begin;
+    private final int end;
+    private String key;
+
+    private BoxFsPathSegments(String root, String[] names, int begin, int end) {
+        this(root, names, new BoxFsFileName[names.length], begin, end);
+    }
+
+    private BoxFsPathSegments(String root, String[] names, BoxFsFileName[] fileNames, int begin, int end) {
+        this.root = root;
+        this.names = names;
+        this.fileNames = fileNames;
+        this.begin = begin;
+        this.end = end;
+    }
+
+    static BoxFsPathSegments parse(String path) {
+        if (path.isEmpty()) {
+            return new BoxFsPathSegments(null, new String[]{""}, 0, 1);
+        }
+
+        String[] parts = path.split(SEPARATOR);
+
+        if (!BoxFsPaths.isAbsolute(path)) {
+            return new BoxFsPathSegments(null, parts, 0, parts.length);
+        }
+
+        if (parts.length == 0) {
+            return new BoxFsPathSegments(SEPARATOR, parts, 0, 0);
+        }
+
+        return new BoxFsPathSegments(parts[0] + SEPARATOR, parts, 1, parts.length);
+    }
+
+    static BoxFsPathSegments of(Path path) {
+        if (path instanceof BoxFsPath) {
+            return ((BoxFsPath) path).segments();
+        }
+
+        return parse(path.toString());
+    }
+
+    boolean isAbsolute() {
+        return root != null;
+    }
+
+    int count() {
+        return end - begin;
+    }
+
+    String get(int index) {
+        return names[begin + index];
+    }
+
+    BoxFsFileName fileName(int index) {
+        BoxFsFileName fileName = fileNames[begin + index];
+
+        if (fileName == null) {
+            fileName = BoxFsFileName.of(names[begin + index]);
+            fileNames[begin + index] = fileName;
+        }
+
+        return fileName;
+    }
+
+    BoxFsPathSegments name(int index) {
+        if (index < 0 || index >= count()) {
+            throw new IllegalArgumentException("Invalid index for getName");
+        }
+
+        return new BoxFsPathSegments(null, names, fileNames, begin + index, begin + index + 1);
+    }
+
+    BoxFsPathSegments subpath(int beginIndex, int endIndex) {
+        if (beginIndex < 0 || endIndex > count() || beginIndex >= endIndex) {
+            throw new IllegalArgumentException("Invalid begin or end index for subpath");
+        }
+
+        return new BoxFsPathSegments(null, names, fileNames, begin + beginIndex, begin + endIndex);
+    }
+
+    BoxFsPathSegments parent() {
+        if (root == null || count() < 1) {
+            return null;
+        }
+
+        return new BoxFsPathSegments(root, names, fileNames, begin, end - 1);
+    }
+
+    String key() {
+        String cached = key;
+
+        if (cached == null) {
+            cached = BoxFsFileName.fold(new BoxFsPathSegments(null, names, fileNames, begin, end).toString());
+            key = cached;
+        }
+
+        return cached;
+    }
+
+    @Override
+    public String toString() {
+        if (root == null && count() == 1) {
+            return names[begin];
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        if (root != null) {
+            builder.append(root);
+        }
+
+        for (int i = begin; i < end; i++) {
+            if (i > begin) {
+                builder.append(SEPARATOR);
+            }
+
+            builder.append(names[i]);
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package de.borisskert.boxfs.macos;
+
+import java.nio.file.attribute.GroupPrincipal;
+import java.util.Objects;
+
+class BoxFsPrincipal implements GroupPrincipal {
+    static final BoxFsPrincipal CURRENT_USER = new BoxFsPrincipal(System.getProperty("user.name", "boxfs"));
+
+    private final String name;
+
+    BoxFsPrincipal(String name) {
+        this.name = Objects.requireNonNull(name);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return name.equals(((BoxFsPrincipal) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
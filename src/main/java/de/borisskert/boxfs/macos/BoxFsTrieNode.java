@@ -0,0 +1,303 @@
+package de.borisskert.boxfs.macos;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+class BoxFsTrieNode<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30;
+    private static final int MAX_DEPTH = MAX_SHIFT / BITS + 2;
+
+    private static final BoxFsTrieNode<?, ?> EMPTY = new BoxFsTrieNode<>(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] slots;
+
+    private BoxFsTrieNode(int bitmap, Object[] slots) {
+        this.bitmap = bitmap;
+        this.slots = slots;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> BoxFsTrieNode<K, V> empty() {
+        return (BoxFsTrieNode<K, V>) EMPTY;
+    }
+
+    boolean isEmpty() {
+        return slots.length == 0;
+    }
+
+    int size() {
+        int size = 0;
+
+        for (int i = 0; i < slots.length; i += 2) {
+            size += slots[i] != null ? 1 : subNode(i + 1).size();
+        }
+
+        return size;
+    }
+
+    V get(Object key, int hash, int shift) {
+        if (shift > MAX_SHIFT) {
+            int index = collisionIndex(key);
+            return index < 0 ? null : value(index + 1);
+        }
+
+        int bit = bit(hash, shift);
+        if ((bitmap & bit) == 0) {
+            return null;
+        }
+
+        int index = slotIndex(bit);
+
+        if (slots[index] == null) {
+            return subNode(index + 1).get(key, hash, shift + BITS);
+        }
+
+        return slots[index].equals(key) ? value(index + 1) : null;
+    }
+
+    BoxFsTrieNode<K, V> put(K key, V value, int hash, int shift) {
+        if (shift > MAX_SHIFT) {
+            return putCollision(key, value);
+        }
+
+        int bit = bit(hash, shift);
+        int index = slotIndex(bit);
+
+        if ((bitmap & bit) == 0) {
+            return new BoxFsTrieNode<>(bitmap | bit, insert(slots, index, key, value));
+        }
+
+        Object existingKey = slots[index];
+
+        if (existingKey == null) {
+            BoxFsTrieNode<K, V> subNode = subNode(index + 1);
+            BoxFsTrieNode<K, V> updated = subNode.put(key, value, hash, shift + BITS);
+
+            return updated == subNode ? this : new BoxFsTrieNode<>(bitmap, replace(slots, index, null, updated));
+        }
+
+        if (existingKey.equals(key)) {
+            return slots[index + 1] == value ? this : new BoxFsTrieNode<>(bitmap, replace(slots, index, key, value));
+        }
+
+        BoxFsTrieNode<K, V> merged = merge(
+                existingKey, slots[index + 1], existingKey.hashCode(),
+                key, value, hash,
+                shift + BITS
+        );
+
+        return new BoxFsTrieNode<>(bitmap, replace(slots, index, null, merged));
+    }
+
+    BoxFsTrieNode<K, V> remove(Object key, int hash, int shift) {
+        if (shift > MAX_SHIFT) {
+            int index = collisionIndex(key);
+            return index < 0 ? this : new BoxFsTrieNode<>(0, delete(slots, index));
+        }
+
+        int bit = bit(hash, shift);
+        if ((bitmap & bit) == 0) {
+            return this;
+        }
+
+        int index = slotIndex(bit);
+        Object existingKey = slots[index];
+
+        if (existingKey == null) {
+            BoxFsTrieNode<K, V> subNode = subNode(index + 1);
+            BoxFsTrieNode<K, V> updated = subNode.remove(key, hash, shift + BITS);
+
+            if (updated == subNode) {
+                return this;
+            }
+
+            if (updated.isEmpty()) {
+                return new BoxFsTrieNode<>(bitmap & ~bit, delete(slots, index));
+            }
+
+            if (updated.isSingleEntry()) {
+                return new BoxFsTrieNode<>(bitmap, replace(slots, index, updated.slots[0], updated.slots[1]));
+            }
+
+            return new BoxFsTrieNode<>(bitmap, replace(slots, index, null, updated));
+        }
+
+        if (!existingKey.equals(key)) {
+            return this;
+        }
+
+        return new BoxFsTrieNode<>(bitmap & ~bit, delete(slots, index));
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < slots.length; i += 2) {
+            if (slots[i] == null) {
+                subNode(i + 1).forEach(action);
+            } else {
+                action.accept(key(i), value(i + 1));
+            }
+        }
+    }
+
+    Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(this);
+    }
+
+    private BoxFsTrieNode<K, V> putCollision(K key, V value) {
+        int index = collisionIndex(key);
+
+        if (index < 0) {
+            return new BoxFsTrieNode<>(0, insert(slots, slots.length, key, value));
+        }
+
+        return slots[index + 1] == value ? this : new BoxFsTrieNode<>(0, replace(slots, index, key, value));
+    }
+
+    private int collisionIndex(Object key) {
+        for (int i = 0; i < slots.length; i += 2) {
+            if (slots[i].equals(key)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private boolean isSingleEntry() {
+        return slots.length == 2 && slots[0] != null;
+    }
+
+    private int slotIndex(int bit) {
+        return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int index) {
+        return (K) slots[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index) {
+        return (V) slots[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private BoxFsTrieNode<K, V> subNode(int index) {
+        return (BoxFsTrieNode<K, V>) slots[index];
+    }
+
+    private static <K, V> BoxFsTrieNode<K, V> merge(
+            Object key1, Object value1, int hash1,
+            Object key2, Object value2, int hash2,
+            int shift
+    ) {
+        if (shift > MAX_SHIFT) {
+            return new BoxFsTrieNode<>(0, new Object[]{key1, value1, key2, value2});
+        }
+
+        int bit1 = bit(hash1, shift);
+        int bit2 = bit(hash2, shift);
+
+        if (bit1 == bit2) {
+            BoxFsTrieNode<K, V> subNode = merge(key1, value1, hash1, key2, value2, hash2, shift + BITS);
+            return new BoxFsTrieNode<>(bit1, new Object[]{null, subNode});
+        }
+
+        Object[] slots = Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Object[]{key1, value1, key2, value2}
+                : new Object[]{key2, value2, key1, value1};
+
+        return new BoxFsTrieNode<>(bit1 | bit2, slots);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Object[] insert(Object[] slots, int index, Object key, Object value) {
+        Object[] inserted = new Object[slots.length + 2];
+        System.arraycopy(slots, 0, inserted, 0, index);
+        inserted[index] = key;
+        inserted[index + 1] = value;
+        System.arraycopy(slots, index, inserted, index + 2, slots.length - index);
+
+        return inserted;
+    }
+
+    private static Object[] replace(Object[] slots, int index, Object key, Object value) {
+        Object[] replaced = slots.clone();
+        replaced[index] = key;
+        replaced[index + 1] = value;
+
+        return replaced;
+    }
+
+    private static Object[] delete(Object[] slots, int index) {
+        Object[] deleted = new Object[slots.length - 2];
+        System.arraycopy(slots, 0, deleted, 0, index);
+        System.arraycopy(slots, index + 2, deleted, index, slots.length - index - 2);
+
+        return deleted;
+    }
+
+    private static class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] path = new Object[MAX_DEPTH][];
+        private final int[] indexes = new int[MAX_DEPTH];
+        private int depth = 0;
+        private Map.Entry<K, V> next;
+
+        EntryIterator(BoxFsTrieNode<K, V> root) {
+            path[0] = root.slots;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            Map.Entry<K, V> current = next;
+            advance();
+
+            return current;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+
+            while (depth >= 0) {
+                Object[] slots = path[depth];
+                int index = indexes[depth];
+
+                if (index >= slots.length) {
+                    depth--;
+                    continue;
+                }
+
+                indexes[depth] = index + 2;
+
+                if (slots[index] == null) {
+                    depth++;
+                    path[depth] = ((BoxFsTrieNode<K, V>) slots[index + 1]).slots;
+                    indexes[depth] = 0;
+                } else {
+                    next = new AbstractMap.SimpleImmutableEntry<>((K) slots[index], (V) slots[index + 1]);
+                    return;
+                }
+            }
+        }
+    }
+}
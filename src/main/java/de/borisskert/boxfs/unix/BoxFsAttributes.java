@@ -1,15 +1,33 @@
 package de.borisskert.boxfs.unix;
 
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.GroupPrincipal;
 import java.nio.file.attribute.PosixFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.UserPrincipal;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 abstract class BoxFsAttributes implements PosixFileAttributes {
+    private static final long RELATIME_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
     private final AtomicReference<Set<PosixFilePermission>> permissions;
 
-    protected BoxFsAttributes(Set<PosixFilePermission> permissions) {
+    private volatile FileTime lastModifiedTime;
+    private volatile FileTime lastAccessTime;
+    private volatile FileTime creationTime;
+    private volatile UserPrincipal owner = BoxFsPrincipal.CURRENT_USER;
+    private volatile GroupPrincipal group = BoxFsPrincipal.CURRENT_USER;
+
+    protected BoxFsAttributes(Set<PosixFilePermission> permissions, FileTime now) {
         this.permissions = new AtomicReference<>(permissions);
+        this.lastModifiedTime = now;
+        this.lastAccessTime = now;
+        this.creationTime = now;
     }
 
     @Override
@@ -17,7 +35,78 @@ abstract class BoxFsAttributes implements PosixFileAttributes {
         return permissions.get();
     }
 
+    @Override
+    public FileTime lastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    @Override
+    public FileTime lastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public FileTime creationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public UserPrincipal owner() {
+        return owner;
+    }
+
+    @Override
+    public GroupPrincipal group() {
+        return group;
+    }
+
     public void setPermissions(Set<PosixFilePermission> permissions) {
         this.permissions.set(permissions);
     }
+
+    public void setOwner(UserPrincipal owner) {
+        this.owner = Objects.requireNonNull(owner);
+    }
+
+    public void setGroup(GroupPrincipal group) {
+        this.group = Objects.requireNonNull(group);
+    }
+
+    public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime creationTime) {
+        if (lastModifiedTime != null) {
+            this.lastModifiedTime = lastModifiedTime;
+        }
+
+        if (lastAccessTime != null) {
+            this.lastAccessTime = lastAccessTime;
+        }
+
+        if (creationTime != null) {
+            this.creationTime = creationTime;
+        }
+    }
+
+    public void modified(FileTime now) {
+        lastModifiedTime = now;
+    }
+
+    public void accessed(Clock clock) {
+        FileTime accessed = lastAccessTime;
+
+        if (accessed.compareTo(lastModifiedTime) > 0
+                && clock.millis() - accessed.toMillis() < RELATIME_INTERVAL_MILLIS) {
+            return;
+        }
+
+        lastAccessTime = FileTime.from(clock.instant());
+    }
+
+    public void copyFrom(BoxFsAttributes other) {
+        this.permissions.set(new HashSet<>(other.permissions()));
+        this.lastModifiedTime = other.lastModifiedTime;
+        this.lastAccessTime = other.lastAccessTime;
+        this.creationTime = other.creationTime;
+        this.owner = other.owner;
+        this.group = other.group;
+    }
 }
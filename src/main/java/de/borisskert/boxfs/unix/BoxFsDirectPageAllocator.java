@@ -0,0 +1,132 @@
+package de.borisskert.boxfs.unix;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.file.ClosedFileSystemException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+class BoxFsDirectPageAllocator implements BoxFsPageAllocator {
+    private static final int MAX_POOLED_PAGES = 16;
+    private static final Consumer<ByteBuffer> DEALLOCATOR = findDeallocator();
+
+    private final Set<ByteBuffer> allocated = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Deque<ByteBuffer> pool = new ArrayDeque<>();
+    private final LongAdder inFlight = new LongAdder();
+    private volatile boolean closed = false;
+
+    @Override
+    public synchronized ByteBuffer allocate(int capacity) {
+        ensureOpen();
+
+        if (capacity == BoxFsContent.PAGE_SIZE && !pool.isEmpty()) {
+            ByteBuffer page = pool.pop();
+            page.clear();
+
+            return page;
+        }
+
+        ByteBuffer page = ByteBuffer.allocateDirect(capacity);
+        allocated.add(page);
+
+        return page;
+    }
+
+    @Override
+    public synchronized void release(ByteBuffer page) {
+        if (closed || !allocated.contains(page)) {
+            return;
+        }
+
+        if (page.capacity() == BoxFsContent.PAGE_SIZE && pool.size() < MAX_POOLED_PAGES) {
+            page.clear();
+            BoxFsContent.zero(page, 0, page.capacity());
+            pool.push(page);
+            return;
+        }
+
+        allocated.remove(page);
+        DEALLOCATOR.accept(page);
+    }
+
+    @Override
+    public void ensureOpen() {
+        if (closed) throw new ClosedFileSystemException();
+    }
+
+    @Override
+    public void enter() {
+        inFlight.increment();
+
+        if (closed) {
+            inFlight.decrement();
+            throw new ClosedFileSystemException();
+        }
+    }
+
+    @Override
+    public void exit() {
+        inFlight.decrement();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+        }
+
+        // operations that entered before closing may still touch the pages
+        while (inFlight.sum() > 0) {
+            Thread.yield();
+        }
+
+        synchronized (this) {
+            allocated.forEach(DEALLOCATOR);
+            allocated.clear();
+            pool.clear();
+        }
+    }
+
+    private static Consumer<ByteBuffer> findDeallocator() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+
+            return buffer -> invoke(invokeCleaner, unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // no Unsafe.invokeCleaner before Java 9
+        }
+
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+
+            return buffer -> invoke(clean, invoke(cleaner, buffer));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // leave the memory to the garbage collector
+            return buffer -> {
+            };
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot release direct memory", e);
+        }
+    }
+}
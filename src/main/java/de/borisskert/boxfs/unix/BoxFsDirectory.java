@@ -2,116 +2,163 @@ package de.borisskert.boxfs.unix;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 class BoxFsDirectory implements BoxFsNode {
 
     private final BoxFsFileSystem fileSystem;
-    private final BoxFsDirectory parent;
-    private final String name;
-    private final Map<String, BoxFsNode> children = new ConcurrentHashMap<>();
+    private volatile BoxFsDirectory parent;
+    private volatile String name;
+    private final Map<String, BoxFsNode> children;
 
-    private final BoxFsDirectoryAttributes attributes = new BoxFsDirectoryAttributes();
-    private final BoxFsFileAttributeView attributeView = new BoxFsFileAttributeView(
-            new BoxFsDirectoryAttributes()
-    );
+    private volatile BoxFsDirectory template;
+
+    private final BoxFsDirectoryAttributes attributes;
+    private final BoxFsFileAttributeView attributeView;
 
     BoxFsDirectory(BoxFsFileSystem fileSystem, BoxFsDirectory parent, String name) {
+        this(fileSystem, parent, name, null);
+    }
+
+    private BoxFsDirectory(BoxFsFileSystem fileSystem, BoxFsDirectory parent, String name, BoxFsDirectory template) {
         this.fileSystem = fileSystem;
+        this.children = fileSystem.newChildren();
         this.parent = parent;
         this.name = name;
+        this.template = template;
+        this.attributes = new BoxFsDirectoryAttributes(fileSystem.now());
+        this.attributeView = new BoxFsFileAttributeView(attributes);
     }
 
     @Override
-    public void createDirectory(Path path) throws IOException {
-        String childName = path.getName(0).toString();
+    public void createDirectory(BoxFsPathSegments path, int index) throws IOException {
+        String childName = path.get(index);
+
+        if (index == path.count() - 1) {
+            BoxFsDirectory directory = newDirectory(childName);
 
-        if (path.getNameCount() == 1) {
-            if (children.containsKey(childName)) {
+            if (entries().putIfAbsent(childName, directory) != null) {
                 throw new FileAlreadyExistsException(path.toString());
             }
 
-            children.put(
-                    childName,
-                    new BoxFsDirectory(fileSystem, this, childName)
-            );
+            created(childName, directory);
         } else {
-            BoxFsNode nextDirectory = children.computeIfAbsent(
-                    childName,
-                    n -> new BoxFsDirectory(fileSystem, this, n)
-            );
-
-            nextDirectory.createDirectory(path.subpath(1, path.getNameCount()));
+            childDirectory(childName).createDirectory(path, index + 1);
         }
     }
 
     @Override
-    public void createFile(Path path) throws IOException {
-        if (path.getNameCount() < 1) {
+    public void createFile(BoxFsPathSegments path, int index) throws IOException {
+        if (index >= path.count()) {
             return;
         }
 
-        String name = path.getName(0).toString();
+        String childName = path.get(index);
+
+        if (index == path.count() - 1) {
+            BoxFsFile file = newFile(childName);
 
-        if (path.getNameCount() == 1) {
-            if (children.containsKey(name)) {
+            if (entries().putIfAbsent(childName, file) != null) {
                 throw new FileAlreadyExistsException(path.toString());
             }
 
-            children.put(
-                    name,
-                    new BoxFsFile(fileSystem, this, name)
-            );
+            created(childName, file);
         } else {
-            BoxFsNode nextDirectory = children.computeIfAbsent(
-                    name,
-                    n -> new BoxFsDirectory(fileSystem, this, n)
-            );
-
-            nextDirectory.createFile(path.subpath(1, path.getNameCount()));
+            childDirectory(childName).createFile(path, index + 1);
         }
     }
 
     @Override
-    public void delete(Path path) throws IOException {
-        if (path.getNameCount() < 1) {
+    public void delete(BoxFsPathSegments path, int index) throws IOException {
+        if (index >= path.count()) {
             return;
         }
 
-        if (path.getNameCount() == 1) {
-            children.remove(path.getName(0).toString());
+        if (index == path.count() - 1) {
+            String name = path.get(index);
+            BoxFsNode removed = entries().remove(name);
+
+            if (removed != null) {
+                fileSystem.fileStore().removeNodes(removed);
+                removed.unlink();
+                attributes.modified(fileSystem.now());
+                signal(StandardWatchEventKinds.ENTRY_DELETE, name);
+
+                if (removed.isDirectory()) {
+                    fileSystem.watchRegistry().removed(removed);
+                }
+            }
+
             return;
         }
 
-        children.get(
-                path.getName(0).toString()
-        ).delete(
-                path.subpath(1, path.getNameCount())
-        );
+        entries().get(
+                path.get(index)
+        ).delete(path, index + 1);
+    }
+
+    @Override
+    public void attachChild(String name, BoxFsNode child) {
+        entries().put(name, child);
+        child.relink(this, name);
+        attributes.modified(fileSystem.now());
+        signal(StandardWatchEventKinds.ENTRY_CREATE, name);
+    }
+
+    @Override
+    public void detachChild(String name) {
+        entries().remove(name);
+        attributes.modified(fileSystem.now());
+        signal(StandardWatchEventKinds.ENTRY_DELETE, name);
+    }
+
+    @Override
+    public void relink(BoxFsDirectory parent, String name) {
+        this.parent = parent;
+        this.name = name;
     }
 
     @Override
-    public boolean exists(Path path) {
-        if (path.getNameCount() < 1) {
+    public BoxFsNode copy(BoxFsDirectory parent, String name) {
+        BoxFsDirectory copy = new BoxFsDirectory(fileSystem, parent, name, this);
+        copy.attributes.copyFrom(attributes);
+
+        return copy;
+    }
+
+    void materialize() {
+        entries().values().stream()
+                .filter(BoxFsDirectory.class::isInstance)
+                .map(BoxFsDirectory.class::cast)
+                .forEach(BoxFsDirectory::materialize);
+    }
+
+    @Override
+    public boolean exists(BoxFsPathSegments path, int index) {
+        if (index >= path.count()) {
             return false;
         }
 
-        String name = path.getName(0).toString();
+        String name = path.get(index);
 
-        if (path.getNameCount() == 1) {
-            return children.containsKey(name);
+        if (index == path.count() - 1) {
+            return entries().containsKey(name);
         }
 
-        return children.containsKey(name)
-                && children.get(name)
-                .exists(path.subpath(1, path.getNameCount()));
+        return entries().containsKey(name)
+                && entries().get(name)
+                .exists(path, index + 1);
     }
 
     @Override
@@ -139,45 +186,145 @@ class BoxFsDirectory implements BoxFsNode {
     }
 
     @Override
-    public Optional<BoxFsNode> readNode(Path path) {
-        if (path.getNameCount() < 1) {
+    public Optional<BoxFsNode> readNode(BoxFsPathSegments path, int index) {
+        if (index >= path.count()) {
             throw new IllegalArgumentException("Path must not be empty");
         }
 
-        String name = path.getName(0).toString();
+        String name = path.get(index);
 
-        if (path.getNameCount() == 1) {
-            return Optional.ofNullable(children.get(name));
+        if (index == path.count() - 1) {
+            return Optional.ofNullable(entries().get(name));
         }
 
-        BoxFsNode child = children.get(name);
+        BoxFsNode child = entries().get(name);
         if (child == null) {
             return Optional.empty();
         }
 
-        return child.readNode(
-                path.subpath(1, path.getNameCount())
-        );
+        return child.readNode(path, index + 1);
     }
 
     @Override
-    public void writeContent(Path path, ByteBuffer buffer) {
-        if (path.getNameCount() < 1) {
+    public void writeContent(BoxFsPathSegments path, int index, ByteBuffer buffer) {
+        if (index >= path.count()) {
             throw new IllegalArgumentException("Path must not be empty");
         }
 
-        String name = path.getName(0).toString();
+        String name = path.get(index);
 
-        if (path.getNameCount() == 1) {
-            children.get(name).writeContent(null, buffer);
-        } else {
-            children.get(
-                    name
-            ).writeContent(
-                    path.subpath(1, path.getNameCount()),
-                    buffer
-            );
+        entries().get(name).writeContent(path, index + 1, buffer);
+    }
+
+    @Override
+    public int readContent(long position, ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Cannot read content from a directory");
+    }
+
+    @Override
+    public int writeContent(long position, ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public long appendContent(ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public void truncateContent(long size) throws IOException {
+        throw new UnsupportedOperationException("Cannot truncate a directory");
+    }
+
+    @Override
+    public long transferContentTo(long position, long count, WritableByteChannel target) throws IOException {
+        throw new UnsupportedOperationException("Cannot read content from a directory");
+    }
+
+    @Override
+    public long transferContentFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public void copyContentFrom(BoxFsNode source) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public void retain() {
+        throw new UnsupportedOperationException("Cannot open a channel on a directory");
+    }
+
+    @Override
+    public void release() {
+        throw new UnsupportedOperationException("Cannot open a channel on a directory");
+    }
+
+    @Override
+    public BoxFsLockTable lockTable() {
+        throw new UnsupportedOperationException("Cannot open a channel on a directory");
+    }
+
+    @Override
+    public void unlink() {
+        // a pending template has no copies to release yet, but must not materialize any after deletion
+        synchronized (this) {
+            template = null;
+        }
+
+        children.values().forEach(BoxFsNode::unlink);
+    }
+
+    @Override
+    public long nodeCount() {
+        BoxFsDirectory template = this.template;
+
+        if (template != null) {
+            return template.nodeCount();
+        }
+
+        long count = 1;
+
+        for (BoxFsNode child : children.values()) {
+            count += child.nodeCount();
+        }
+
+        return count;
+    }
+
+    @Override
+    public long fileCount() {
+        BoxFsDirectory template = this.template;
+
+        if (template != null) {
+            return template.fileCount();
         }
+
+        long count = 0;
+
+        for (BoxFsNode child : children.values()) {
+            count += child.fileCount();
+        }
+
+        return count;
+    }
+
+    @Override
+    public int height() {
+        BoxFsDirectory template = this.template;
+
+        if (template != null) {
+            return template.height();
+        }
+
+        int height = 0;
+
+        for (BoxFsNode child : children.values()) {
+            height = Math.max(height, child.height() + 1);
+        }
+
+        return height;
     }
 
     @Override
@@ -201,7 +348,17 @@ class BoxFsDirectory implements BoxFsNode {
 
     @Override
     public Collection<String> children() {
-        return children.keySet();
+        return entries().keySet();
+    }
+
+    @Override
+    public Collection<BoxFsNode> childNodes() {
+        return entries().values();
+    }
+
+    @Override
+    public Stream<String> childNames() {
+        return entries().keySet().stream();
     }
 
     @Override
@@ -218,6 +375,57 @@ class BoxFsDirectory implements BoxFsNode {
         return parent.path().resolve(name);
     }
 
+    private BoxFsNode childDirectory(String childName) {
+        BoxFsNode existing = entries().get(childName);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        BoxFsDirectory directory = newDirectory(childName);
+        existing = entries().putIfAbsent(childName, directory);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        created(childName, directory);
+        return directory;
+    }
+
+    private BoxFsDirectory newDirectory(String name) {
+        return new BoxFsDirectory(fileSystem, this, name);
+    }
+
+    private BoxFsFile newFile(String name) {
+        return new BoxFsFile(fileSystem, this, name);
+    }
+
+    private void created(String name, BoxFsNode node) {
+        fileSystem.fileStore().addNodes(node);
+        attributes.modified(fileSystem.now());
+        signal(StandardWatchEventKinds.ENTRY_CREATE, name);
+    }
+
+    private void signal(WatchEvent.Kind<Path> kind, String name) {
+        fileSystem.watchRegistry().signal(this, kind, name);
+    }
+
+    private Map<String, BoxFsNode> entries() {
+        if (template != null) {
+            synchronized (this) {
+                if (template != null) {
+                    template.entries().forEach(
+                            (key, child) -> children.put(key, child.copy(this, key))
+                    );
+                    template = null;
+                }
+            }
+        }
+
+        return children;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,317 @@
+package de.borisskert.boxfs.unix;
+
+import de.borisskert.boxfs.BoxFsMetrics;
+import de.borisskert.boxfs.BoxFsOperation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+class BoxFsFileChannel extends FileChannel {
+    private final AtomicLong position = new AtomicLong(0);
+    private final Object positionLock = new Object();
+
+    private final BoxFsNode file;
+    private final boolean readable;
+    private final boolean writable;
+    private final boolean append;
+    private final BoxFsPageAllocator allocator;
+    private final BoxFsMetrics metrics;
+
+    public BoxFsFileChannel(BoxFsNode file, Set<? extends OpenOption> options, BoxFsPageAllocator allocator, BoxFsMetrics metrics) {
+        this.file = file;
+        this.allocator = allocator;
+        this.metrics = metrics;
+        this.append = options.contains(StandardOpenOption.APPEND);
+        this.writable = append || options.contains(StandardOpenOption.WRITE);
+        this.readable = options.contains(StandardOpenOption.READ) || !writable;
+
+        file.retain();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        ensureReadable();
+
+        long start = metrics.start();
+        int bytesRead;
+
+        synchronized (positionLock) {
+            bytesRead = file.readContent(position.get(), dst);
+
+            if (bytesRead > 0) {
+                position.addAndGet(bytesRead);
+            }
+        }
+
+        metrics.record(BoxFsOperation.READ, start, bytesRead);
+
+        return bytesRead;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        ensureOpen();
+        ensureReadable();
+
+        long totalRead = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            if (!dsts[i].hasRemaining()) {
+                continue;
+            }
+
+            int bytesRead = read(dsts[i]);
+            if (bytesRead < 0) {
+                return totalRead == 0 ? -1 : totalRead;
+            }
+
+            totalRead += bytesRead;
+
+            if (dsts[i].hasRemaining()) {
+                break;
+            }
+        }
+
+        return totalRead;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        ensureReadable();
+        ensureNotNegative(position, "Position");
+
+        long start = metrics.start();
+        int bytesRead = file.readContent(position, dst);
+        metrics.record(BoxFsOperation.READ, start, bytesRead);
+
+        return bytesRead;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        ensureWritable();
+
+        long start = metrics.start();
+        int bytes;
+
+        synchronized (positionLock) {
+            if (append) {
+                bytes = src.remaining();
+                position.set(file.appendContent(src));
+            } else {
+                long writePosition = position.get();
+                bytes = file.writeContent(writePosition, src);
+                position.set(writePosition + bytes);
+            }
+        }
+
+        metrics.record(BoxFsOperation.WRITE, start, bytes);
+
+        return bytes;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        ensureOpen();
+        ensureWritable();
+
+        long totalWritten = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            totalWritten += write(srcs[i]);
+        }
+
+        return totalWritten;
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        ensureOpen();
+        ensureWritable();
+        ensureNotNegative(position, "Position");
+
+        long start = metrics.start();
+        int bytes = file.writeContent(position, src);
+        metrics.record(BoxFsOperation.WRITE, start, bytes);
+
+        return bytes;
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position.get();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        ensureNotNegative(newPosition, "Position");
+
+        position.set(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return file.attributes().size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        ensureOpen();
+        ensureWritable();
+        ensureNotNegative(size, "Size");
+
+        file.truncateContent(size);
+
+        if (position.get() > size) {
+            position.set(size);
+        }
+
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        ensureOpen();
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ensureOpen();
+        ensureReadable();
+        ensureNotNegative(position, "Position");
+        ensureNotNegative(count, "Count");
+
+        long start = metrics.start();
+        long transferred = file.transferContentTo(position, count, target);
+        metrics.record(BoxFsOperation.READ, start, transferred);
+
+        return transferred;
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        ensureOpen();
+        ensureWritable();
+        ensureNotNegative(position, "Position");
+        ensureNotNegative(count, "Count");
+
+        if (position > file.attributes().size()) {
+            return 0;
+        }
+
+        long start = metrics.start();
+        long transferred = file.transferContentFrom(src, position, count);
+        metrics.record(BoxFsOperation.WRITE, start, transferred);
+
+        return transferred;
+    }
+
+    /**
+     * Maps a copy of the region. READ_WRITE is not supported, because writes to the copy cannot reach the file.
+     */
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        ensureOpen();
+        ensureReadable();
+        ensureNotNegative(position, "Position");
+        ensureNotNegative(size, "Size");
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE: " + size);
+        }
+
+        if (mode == MapMode.READ_WRITE) {
+            throw new UnsupportedOperationException("READ_WRITE mapping is not supported");
+        }
+
+        if (mode == MapMode.PRIVATE) {
+            ensureWritable();
+        }
+
+        if (mode == MapMode.READ_ONLY && position + size > file.attributes().size()) {
+            throw new IOException("Cannot map a read-only region beyond the end of the file");
+        }
+
+        ByteBuffer mapped = allocator.allocateMapped((int) size);
+        file.readContent(position, mapped);
+        mapped.clear();
+
+        if (mode == MapMode.READ_ONLY) {
+            return (MappedByteBuffer) mapped.asReadOnlyBuffer();
+        }
+
+        return (MappedByteBuffer) mapped;
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        ensureOpen();
+        ensureLockable(position, size, shared);
+
+        return file.lockTable().lock(this, position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        ensureOpen();
+        ensureLockable(position, size, shared);
+
+        return file.lockTable().tryLock(this, position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        file.lockTable().releaseAll(this);
+        file.release();
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!isOpen()) throw new ClosedChannelException();
+    }
+
+    private void ensureReadable() {
+        if (!readable) throw new NonReadableChannelException();
+    }
+
+    private void ensureWritable() {
+        if (!writable) throw new NonWritableChannelException();
+    }
+
+    private void ensureLockable(long position, long size, boolean shared) {
+        ensureNotNegative(position, "Position");
+        ensureNotNegative(size, "Size");
+
+        if (position + size < 0) {
+            throw new IllegalArgumentException("Position + size must not overflow");
+        }
+
+        if (shared) {
+            ensureReadable();
+        } else {
+            ensureWritable();
+        }
+    }
+
+    private static void ensureNotNegative(long value, String name) {
+        if (value < 0) throw new IllegalArgumentException(name + " must not be negative: " + value);
+    }
+}
@@ -0,0 +1,38 @@
+package de.borisskert.boxfs.unix;
+
+import de.borisskert.boxfs.BoxFsSnapshot;
+
+class BoxFsFileSystemSnapshot implements BoxFsSnapshot {
+    private final BoxFsFileSystem fileSystem;
+    private final BoxFsDirectory rootDirectory;
+    private final long nodeCount;
+    private final long fileCount;
+
+    BoxFsFileSystemSnapshot(BoxFsFileSystem fileSystem, BoxFsDirectory rootDirectory, long nodeCount, long fileCount) {
+        this.fileSystem = fileSystem;
+        this.rootDirectory = rootDirectory;
+        this.nodeCount = nodeCount;
+        this.fileCount = fileCount;
+    }
+
+    @Override
+    public void restore() {
+        fileSystem.restore(this);
+    }
+
+    BoxFsFileSystem fileSystem() {
+        return fileSystem;
+    }
+
+    BoxFsDirectory rootDirectory() {
+        return rootDirectory;
+    }
+
+    long nodeCount() {
+        return nodeCount;
+    }
+
+    long fileCount() {
+        return fileCount;
+    }
+}
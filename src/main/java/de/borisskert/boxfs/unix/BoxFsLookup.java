@@ -0,0 +1,42 @@
+package de.borisskert.boxfs.unix;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Optional;
+
+class BoxFsLookup {
+    private final BoxFsPathSegments path;
+    private final BoxFsNode parent;
+    private final BoxFsNode node;
+
+    BoxFsLookup(BoxFsPathSegments path, BoxFsNode parent, BoxFsNode node) {
+        this.path = path;
+        this.parent = parent;
+        this.node = node;
+    }
+
+    Optional<BoxFsNode> parent() {
+        return Optional.ofNullable(parent);
+    }
+
+    Optional<BoxFsNode> node() {
+        return Optional.ofNullable(node);
+    }
+
+    boolean exists() {
+        return node != null;
+    }
+
+    BoxFsNode createFile() throws IOException {
+        int last = path.count() - 1;
+
+        parent.createFile(path, last);
+
+        return parent.readNode(path, last)
+                .orElseThrow(() -> new NoSuchFileException(path.toString()));
+    }
+
+    void createDirectory() throws IOException {
+        parent.createDirectory(path, path.count() - 1);
+    }
+}
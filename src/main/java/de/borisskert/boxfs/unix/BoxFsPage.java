@@ -0,0 +1,37 @@
+package de.borisskert.boxfs.unix;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BoxFsPage {
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private final ByteBuffer buffer;
+
+    BoxFsPage(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    boolean isShared() {
+        return references.get() > 1;
+    }
+
+    BoxFsPage share() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    void release(BoxFsPageAllocator allocator) {
+        if (references.decrementAndGet() == 0) {
+            allocator.release(buffer);
+        }
+    }
+}
@@ -10,13 +10,19 @@ import java.util.Optional;
 
 class BoxFsPath implements Path {
     private final BoxFsFileSystem fileSystem;
-    private final String path;
+    private String path;
+    private BoxFsPathSegments segments;
 
     BoxFsPath(BoxFsFileSystem fileSystem, String path) {
         this.fileSystem = fileSystem;
         this.path = path;
     }
 
+    private BoxFsPath(BoxFsFileSystem fileSystem, BoxFsPathSegments segments) {
+        this.fileSystem = fileSystem;
+        this.segments = segments;
+    }
+
     @Override
     public BoxFsFileSystem getFileSystem() {
         return fileSystem;
@@ -24,12 +30,12 @@ class BoxFsPath implements Path {
 
     @Override
     public boolean isAbsolute() {
-        return path.startsWith(fileSystem.separator());
+        return toString().startsWith(fileSystem.separator());
     }
 
     @Override
     public BoxFsPath getRoot() {
-        String root = BoxFsPaths.getRoot(path);
+        String root = BoxFsPaths.getRoot(toString());
 
         return Optional.ofNullable(root)
                 .map(r -> new BoxFsPath(fileSystem, r))
@@ -38,29 +44,39 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath getFileName() {
-        return new BoxFsPath(fileSystem, BoxFsPaths.getFileName(path));
+        BoxFsPathSegments segments = segments();
+
+        if (segments.isAbsolute() && segments.count() > 0) {
+            return new BoxFsPath(fileSystem, segments.name(segments.count() - 1));
+        }
+
+        return new BoxFsPath(fileSystem, BoxFsPaths.getFileName(toString()));
     }
 
     @Override
     public BoxFsPath getParent() {
-        return Optional.ofNullable(BoxFsPaths.getParent(path))
-                .map(p -> new BoxFsPath(fileSystem, p))
-                .orElse(null);
+        BoxFsPathSegments parent = segments().parent();
+
+        if (parent == null) {
+            return null;
+        }
+
+        return new BoxFsPath(fileSystem, parent);
     }
 
     @Override
     public int getNameCount() {
-        return BoxFsPaths.getNameCount(path);
+        return segments().count();
     }
 
     @Override
     public BoxFsPath getName(int index) {
-        return new BoxFsPath(fileSystem, BoxFsPaths.getName(path, index));
+        return new BoxFsPath(fileSystem, segments().name(index));
     }
 
     @Override
     public BoxFsPath subpath(int beginIndex, int endIndex) {
-        return new BoxFsPath(fileSystem, BoxFsPaths.subpath(path, beginIndex, endIndex));
+        return new BoxFsPath(fileSystem, segments().subpath(beginIndex, endIndex));
     }
 
     @Override
@@ -85,12 +101,12 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath normalize() {
-        return new BoxFsPath(fileSystem, BoxFsPaths.normalize(path));
+        return new BoxFsPath(fileSystem, BoxFsPaths.normalize(toString()));
     }
 
     @Override
     public BoxFsPath resolve(Path other) {
-        String resolved = BoxFsPaths.resolve(path, other.toString());
+        String resolved = BoxFsPaths.resolve(toString(), other.toString());
 
         return new BoxFsPath(
                 fileSystem,
@@ -100,7 +116,7 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath resolve(String other) {
-        return new BoxFsPath(fileSystem, BoxFsPaths.resolve(path, other));
+        return new BoxFsPath(fileSystem, BoxFsPaths.resolve(toString(), other));
     }
 
     @Override
@@ -115,7 +131,7 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath relativize(Path other) {
-        String relativized = BoxFsPaths.relativize(path, other.toString());
+        String relativized = BoxFsPaths.relativize(toString(), other.toString());
         return new BoxFsPath(fileSystem, relativized);
     }
 
@@ -126,7 +142,7 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath toAbsolutePath() {
-        String absolutePath = BoxFsPaths.toAbsolutePath(path);
+        String absolutePath = BoxFsPaths.toAbsolutePath(toString());
         return new BoxFsPath(fileSystem, absolutePath);
     }
 
@@ -142,17 +158,21 @@ class BoxFsPath implements Path {
 
     @Override
     public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
+        if (!(watcher instanceof BoxFsWatchService)) {
+            throw new ProviderMismatchException();
+        }
+
+        return ((BoxFsWatchService) watcher).register(this, events);
     }
 
     @Override
     public WatchKey register(WatchService watcher, WatchEvent.Kind<?>... events) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return register(watcher, events, new WatchEvent.Modifier[0]);
     }
 
     @Override
     public Iterator<Path> iterator() {
-        final Iterator<String> it = BoxFsPaths.iterator(path);
+        final Iterator<String> it = BoxFsPaths.iterator(toString());
 
         return new Iterator<Path>() {
             @Override
@@ -174,18 +194,36 @@ class BoxFsPath implements Path {
 
     @Override
     public String toString() {
-        return this.path;
+        String string = path;
+
+        if (string == null) {
+            string = segments.toString();
+            path = string;
+        }
+
+        return string;
+    }
+
+    BoxFsPathSegments segments() {
+        BoxFsPathSegments parsed = segments;
+
+        if (parsed == null) {
+            parsed = BoxFsPathSegments.parse(path);
+            segments = parsed;
+        }
+
+        return parsed;
     }
 
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         BoxFsPath paths = (BoxFsPath) o;
-        return Objects.equals(path, paths.path);
+        return Objects.equals(toString(), paths.toString());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(path);
+        return Objects.hashCode(toString());
     }
 }
@@ -0,0 +1,216 @@
+package de.borisskert.boxfs.unix;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+class BoxFsPersistentMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private final AtomicReference<BoxFsTrieNode<K, V>> root = new AtomicReference<>(BoxFsTrieNode.empty());
+
+    @Override
+    public V get(Object key) {
+        return root.get().get(key, key.hashCode(), 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return root.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.get().isEmpty();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V previous = current.get(key, key.hashCode(), 0);
+            BoxFsTrieNode<K, V> updated = current.put(key, value, key.hashCode(), 0);
+
+            if (updated == current || root.compareAndSet(current, updated)) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V existing = current.get(key, key.hashCode(), 0);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            if (root.compareAndSet(current, current.put(key, value, key.hashCode(), 0))) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+
+        V value = null;
+
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V existing = current.get(key, key.hashCode(), 0);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            if (value == null) {
+                value = mappingFunction.apply(key);
+
+                if (value == null) {
+                    return null;
+                }
+            }
+
+            if (root.compareAndSet(current, current.put(key, value, key.hashCode(), 0))) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V previous = current.get(key, key.hashCode(), 0);
+            BoxFsTrieNode<K, V> updated = current.remove(key, key.hashCode(), 0);
+
+            if (updated == current || root.compareAndSet(current, updated)) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V existing = current.get(key, key.hashCode(), 0);
+
+            if (existing == null || !existing.equals(value)) {
+                return false;
+            }
+
+            if (root.compareAndSet(current, current.remove(key, key.hashCode(), 0))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(newValue);
+
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V existing = current.get(key, key.hashCode(), 0);
+
+            if (existing == null || !existing.equals(oldValue)) {
+                return false;
+            }
+
+            if (root.compareAndSet(current, current.put(key, newValue, key.hashCode(), 0))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+
+        while (true) {
+            BoxFsTrieNode<K, V> current = root.get();
+            V existing = current.get(key, key.hashCode(), 0);
+
+            if (existing == null) {
+                return null;
+            }
+
+            if (root.compareAndSet(current, current.put(key, value, key.hashCode(), 0))) {
+                return existing;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        root.set(BoxFsTrieNode.empty());
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.get().forEach(action);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<Entry<K, V>> iterator = root.get().iterator();
+
+                return new Iterator<Entry<K, V>>() {
+                    private Entry<K, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        last = iterator.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+
+                        BoxFsPersistentMap.this.remove(last.getKey(), last.getValue());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return BoxFsPersistentMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return BoxFsPersistentMap.this.isEmpty();
+            }
+        };
+    }
+}
@@ -1,17 +1,36 @@
 package de.borisskert.boxfs.unix;
 
+import de.borisskert.boxfs.BoxFsTreeStatistics;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 class BoxFsTree implements BoxFsNode {
+    private static final String SEPARATOR = "/";
+    static final int MAX_CACHED_NODES = 4096;
 
     private final BoxFsFileSystem fileSystem;
-    private final BoxFsDirectory rootDirectory;
+    private volatile BoxFsDirectory rootDirectory;
+
+    private final Map<String, BoxFsNode> nodeCache = Collections.synchronizedMap(new LinkedHashMap<String, BoxFsNode>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BoxFsNode> eldest) {
+            return size() > MAX_CACHED_NODES;
+        }
+    });
+    private final AtomicLong modifications = new AtomicLong();
 
     BoxFsTree(BoxFsFileSystem fileSystem) {
         this.fileSystem = fileSystem;
@@ -23,14 +42,58 @@ class BoxFsTree implements BoxFsNode {
         rootDirectory.createDirectory(path);
     }
 
+    @Override
+    public void createDirectory(BoxFsPathSegments path, int index) throws IOException {
+        rootDirectory.createDirectory(path, index);
+    }
+
     @Override
     public void createFile(Path path) throws IOException {
         rootDirectory.createFile(path);
     }
 
+    @Override
+    public void createFile(BoxFsPathSegments path, int index) throws IOException {
+        rootDirectory.createFile(path, index);
+    }
+
     @Override
     public void delete(Path path) throws IOException {
+        if (isRoot(path)) {
+            return;
+        }
+
+        Optional<BoxFsNode> deleted = lookup(path);
         rootDirectory.delete(path);
+
+        if (deleted.isPresent()) {
+            invalidate(path, deleted.get());
+        }
+    }
+
+    @Override
+    public void delete(BoxFsPathSegments path, int index) throws IOException {
+        rootDirectory.delete(path, index);
+    }
+
+    @Override
+    public void attachChild(String name, BoxFsNode child) {
+        rootDirectory.attachChild(name, child);
+    }
+
+    @Override
+    public void detachChild(String name) {
+        rootDirectory.detachChild(name);
+    }
+
+    @Override
+    public void relink(BoxFsDirectory parent, String name) {
+        throw new UnsupportedOperationException("Cannot move the root directory");
+    }
+
+    @Override
+    public BoxFsNode copy(BoxFsDirectory parent, String name) {
+        throw new UnsupportedOperationException("Cannot copy the root directory");
     }
 
     @Override
@@ -39,7 +102,12 @@ class BoxFsTree implements BoxFsNode {
             return true;
         }
 
-        return rootDirectory.exists(path);
+        return lookup(path).isPresent();
+    }
+
+    @Override
+    public boolean exists(BoxFsPathSegments path, int index) {
+        return rootDirectory.exists(path, index);
     }
 
     @Override
@@ -53,7 +121,9 @@ class BoxFsTree implements BoxFsNode {
             return true;
         }
 
-        return rootDirectory.isDirectory(path);
+        return lookup(path)
+                .map(BoxFsNode::isDirectory)
+                .orElse(false);
     }
 
     @Override
@@ -67,7 +137,9 @@ class BoxFsTree implements BoxFsNode {
             return false;
         }
 
-        return rootDirectory.isFile(path);
+        return lookup(path)
+                .map(BoxFsNode::isFile)
+                .orElse(false);
     }
 
     @Override
@@ -76,7 +148,12 @@ class BoxFsTree implements BoxFsNode {
             return Optional.of(rootDirectory);
         }
 
-        return rootDirectory.readNode(path);
+        return lookup(path);
+    }
+
+    @Override
+    public Optional<BoxFsNode> readNode(BoxFsPathSegments path, int index) {
+        return rootDirectory.readNode(path, index);
     }
 
     @Override
@@ -88,6 +165,81 @@ class BoxFsTree implements BoxFsNode {
         rootDirectory.writeContent(path, buffer);
     }
 
+    @Override
+    public void writeContent(BoxFsPathSegments path, int index, ByteBuffer buffer) {
+        rootDirectory.writeContent(path, index, buffer);
+    }
+
+    @Override
+    public int readContent(long position, ByteBuffer buffer) throws IOException {
+        return rootDirectory.readContent(position, buffer);
+    }
+
+    @Override
+    public int writeContent(long position, ByteBuffer buffer) throws IOException {
+        return rootDirectory.writeContent(position, buffer);
+    }
+
+    @Override
+    public long appendContent(ByteBuffer buffer) throws IOException {
+        return rootDirectory.appendContent(buffer);
+    }
+
+    @Override
+    public void truncateContent(long size) throws IOException {
+        rootDirectory.truncateContent(size);
+    }
+
+    @Override
+    public long transferContentTo(long position, long count, WritableByteChannel target) throws IOException {
+        return rootDirectory.transferContentTo(position, count, target);
+    }
+
+    @Override
+    public long transferContentFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        return rootDirectory.transferContentFrom(src, position, count);
+    }
+
+    @Override
+    public void copyContentFrom(BoxFsNode source) throws IOException {
+        rootDirectory.copyContentFrom(source);
+    }
+
+    @Override
+    public void retain() {
+        rootDirectory.retain();
+    }
+
+    @Override
+    public void release() {
+        rootDirectory.release();
+    }
+
+    @Override
+    public BoxFsLockTable lockTable() {
+        return rootDirectory.lockTable();
+    }
+
+    @Override
+    public void unlink() {
+        rootDirectory.unlink();
+    }
+
+    @Override
+    public long nodeCount() {
+        return rootDirectory.nodeCount();
+    }
+
+    @Override
+    public long fileCount() {
+        return rootDirectory.fileCount();
+    }
+
+    @Override
+    public int height() {
+        return rootDirectory.height();
+    }
+
     @Override
     public <A extends BasicFileAttributes> A attributes() {
         return rootDirectory.attributes();
@@ -108,6 +260,16 @@ class BoxFsTree implements BoxFsNode {
         return rootDirectory.children();
     }
 
+    @Override
+    public Collection<BoxFsNode> childNodes() {
+        return rootDirectory.childNodes();
+    }
+
+    @Override
+    public Stream<String> childNames() {
+        return rootDirectory.childNames();
+    }
+
     @Override
     public Optional<BoxFsNode> parent() {
         return Optional.empty();
@@ -118,6 +280,106 @@ class BoxFsTree implements BoxFsNode {
         return fileSystem.root();
     }
 
+    BoxFsDirectory snapshot() {
+        BoxFsDirectory snapshot = (BoxFsDirectory) rootDirectory.copy(null, "/");
+        snapshot.materialize();
+
+        return snapshot;
+    }
+
+    void restore(BoxFsDirectory snapshot) {
+        BoxFsDirectory previous = rootDirectory;
+        rootDirectory = (BoxFsDirectory) snapshot.copy(null, "/");
+
+        modifications.incrementAndGet();
+        nodeCache.clear();
+
+        previous.unlink();
+    }
+
+    BoxFsTreeStatistics statistics() {
+        BoxFsFileStore fileStore = fileSystem.fileStore();
+        long files = fileStore.fileCount();
+
+        return new BoxFsTreeStatistics(fileStore.nodeCount() - files + 1, files, fileStore.allocatedBytes(), this::height);
+    }
+
+    int cachedNodes() {
+        return nodeCache.size();
+    }
+
+    boolean isCached(Path path) {
+        return nodeCache.containsKey(BoxFsPathSegments.of(path).key());
+    }
+
+    void invalidate(Path path, BoxFsNode node) {
+        modifications.incrementAndGet();
+
+        String key = BoxFsPathSegments.of(path).key();
+
+        if (!node.isDirectory()) {
+            nodeCache.remove(key);
+            return;
+        }
+
+        String prefix = key + SEPARATOR;
+        nodeCache.keySet().removeIf(cached -> cached.equals(key) || cached.startsWith(prefix));
+    }
+
+    BoxFsLookup resolve(Path path) {
+        BoxFsPathSegments segments = BoxFsPathSegments.of(path);
+
+        if (segments.count() < 1) {
+            return new BoxFsLookup(segments, null, rootDirectory);
+        }
+
+        BoxFsNode cached = nodeCache.get(segments.key());
+        if (cached != null) {
+            return new BoxFsLookup(segments, cached.parent().orElse(null), cached);
+        }
+
+        long modification = modifications.get();
+        int last = segments.count() - 1;
+
+        BoxFsNode parent = last < 1
+                ? rootDirectory
+                : lookup(segments.subpath(0, last), rootDirectory, 0, modification).orElse(null);
+
+        if (parent == null || !parent.isDirectory()) {
+            return new BoxFsLookup(segments, parent, null);
+        }
+
+        BoxFsNode node = lookup(segments, parent, last, modification).orElse(null);
+
+        return new BoxFsLookup(segments, parent, node);
+    }
+
+    private Optional<BoxFsNode> lookup(Path path) {
+        return lookup(BoxFsPathSegments.of(path), rootDirectory, 0, modifications.get());
+    }
+
+    private Optional<BoxFsNode> lookup(BoxFsPathSegments segments, BoxFsNode from, int index, long modification) {
+        String key = segments.key();
+
+        BoxFsNode cached = nodeCache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<BoxFsNode> node = from.readNode(segments, index);
+        node.ifPresent(found -> cache(key, found, modification));
+
+        return node;
+    }
+
+    private void cache(String key, BoxFsNode node, long modification) {
+        nodeCache.put(key, node);
+
+        if (modifications.get() != modification) {
+            nodeCache.remove(key, node);
+        }
+    }
+
     private static boolean isRoot(Path path) {
         return path.isAbsolute() && path.getNameCount() < 1;
     }
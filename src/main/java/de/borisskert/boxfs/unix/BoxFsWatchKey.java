@@ -0,0 +1,150 @@
+package de.borisskert.boxfs.unix;
+
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class BoxFsWatchKey implements WatchKey {
+    static final int MAX_EVENTS = 512;
+
+    private final BoxFsWatchService service;
+    private final BoxFsPath path;
+    private final BoxFsNode directory;
+    private volatile Set<WatchEvent.Kind<?>> kinds;
+    private volatile boolean valid = true;
+
+    private final List<BoxFsWatchEvent<?>> events = new ArrayList<>();
+    private final Map<String, BoxFsWatchEvent<?>> modifications = new HashMap<>();
+    private boolean signalled = false;
+
+    BoxFsWatchKey(BoxFsWatchService service, BoxFsPath path, BoxFsNode directory, Set<WatchEvent.Kind<?>> kinds) {
+        this.service = service;
+        this.path = path;
+        this.directory = directory;
+        this.kinds = kinds;
+    }
+
+    @Override
+    public boolean isValid() {
+        return valid;
+    }
+
+    @Override
+    public synchronized List<WatchEvent<?>> pollEvents() {
+        List<WatchEvent<?>> polled = new ArrayList<>(events);
+        events.clear();
+        modifications.clear();
+
+        return polled;
+    }
+
+    @Override
+    public synchronized boolean reset() {
+        if (!valid) {
+            return false;
+        }
+
+        if (signalled && events.isEmpty()) {
+            signalled = false;
+        } else if (signalled) {
+            service.enqueue(this);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        if (valid) {
+            valid = false;
+            service.cancel(this);
+        }
+    }
+
+    @Override
+    public Path watchable() {
+        return path;
+    }
+
+    void signal(WatchEvent.Kind<Path> kind, String name) {
+        if (!valid || !kinds.contains(kind)) {
+            return;
+        }
+
+        synchronized (this) {
+            if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                BoxFsWatchEvent<?> pending = modifications.get(name);
+
+                if (pending != null) {
+                    pending.repeat();
+                    return;
+                }
+            } else {
+                // later modifications must not merge into one reported before this event
+                modifications.remove(name);
+            }
+
+            BoxFsWatchEvent<?> last = events.isEmpty() ? null : events.get(events.size() - 1);
+
+            if (last != null && last.isSame(kind, name)) {
+                last.repeat();
+                return;
+            }
+
+            if (events.size() >= MAX_EVENTS) {
+                overflow(last);
+                return;
+            }
+
+            BoxFsWatchEvent<Path> event = new BoxFsWatchEvent<>(kind, new BoxFsPath(path.getFileSystem(), name), name);
+            events.add(event);
+
+            if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                modifications.put(name, event);
+            }
+
+            enqueue();
+        }
+    }
+
+    void invalidate() {
+        valid = false;
+
+        synchronized (this) {
+            enqueue();
+        }
+    }
+
+    BoxFsWatchService service() {
+        return service;
+    }
+
+    BoxFsNode directory() {
+        return directory;
+    }
+
+    void kinds(Set<WatchEvent.Kind<?>> kinds) {
+        this.kinds = kinds;
+    }
+
+    private void overflow(BoxFsWatchEvent<?> last) {
+        if (last != null && last.isSame(StandardWatchEventKinds.OVERFLOW, null)) {
+            last.repeat();
+        } else {
+            events.add(new BoxFsWatchEvent<>(StandardWatchEventKinds.OVERFLOW, null, null));
+        }
+    }
+
+    private void enqueue() {
+        if (!signalled) {
+            signalled = true;
+            service.enqueue(this);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package de.borisskert.boxfs.unix;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class BoxFsWatchRegistry {
+    private final Map<BoxFsNode, List<BoxFsWatchKey>> keys = new ConcurrentHashMap<>();
+
+    synchronized BoxFsWatchKey register(BoxFsWatchService service, BoxFsPath path, BoxFsNode directory, Set<WatchEvent.Kind<?>> kinds) {
+        List<BoxFsWatchKey> watching = keys.computeIfAbsent(directory, node -> new CopyOnWriteArrayList<>());
+
+        for (BoxFsWatchKey key : watching) {
+            if (key.service() == service) {
+                key.kinds(kinds);
+                return key;
+            }
+        }
+
+        BoxFsWatchKey key = new BoxFsWatchKey(service, path, directory, kinds);
+        watching.add(key);
+
+        return key;
+    }
+
+    void signal(BoxFsNode directory, WatchEvent.Kind<Path> kind, String name) {
+        List<BoxFsWatchKey> watching = keys.get(directory);
+
+        if (watching == null) {
+            return;
+        }
+
+        for (BoxFsWatchKey key : watching) {
+            key.signal(kind, name);
+        }
+    }
+
+    synchronized void cancel(BoxFsWatchKey key) {
+        List<BoxFsWatchKey> watching = keys.get(key.directory());
+
+        if (watching != null && watching.remove(key) && watching.isEmpty()) {
+            keys.remove(key.directory());
+        }
+    }
+
+    synchronized void cancel(BoxFsWatchService service) {
+        Iterator<List<BoxFsWatchKey>> iterator = keys.values().iterator();
+
+        while (iterator.hasNext()) {
+            List<BoxFsWatchKey> watching = iterator.next();
+
+            watching.removeIf(key -> {
+                if (key.service() != service) {
+                    return false;
+                }
+
+                key.invalidate();
+                return true;
+            });
+
+            if (watching.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    void removed(BoxFsNode node) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            keys.entrySet().removeIf(entry -> {
+                if (!isWithin(entry.getKey(), node)) {
+                    return false;
+                }
+
+                entry.getValue().forEach(BoxFsWatchKey::invalidate);
+                return true;
+            });
+        }
+    }
+
+    synchronized void clear() {
+        keys.values().forEach(watching -> watching.forEach(BoxFsWatchKey::invalidate));
+        keys.clear();
+    }
+
+    private static boolean isWithin(BoxFsNode candidate, BoxFsNode ancestor) {
+        for (BoxFsNode current = candidate; current != null; current = current.parent().orElse(null)) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -4,28 +4,38 @@ import java.nio.file.AccessDeniedException;
 import java.nio.file.AccessMode;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
 
 abstract class BoxFsAttributes implements BasicFileAttributes {
+    private static final long RELATIME_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
 
     protected final BoxFsBasicAttributesMap attributes;
 
-    BoxFsAttributes(BoxFsBasicAttributesMap attributes) {
+    private volatile FileTime lastModifiedTime;
+    private volatile FileTime lastAccessTime;
+    private volatile FileTime creationTime;
+
+    BoxFsAttributes(BoxFsBasicAttributesMap attributes, FileTime now) {
         this.attributes = attributes;
+        this.lastModifiedTime = now;
+        this.lastAccessTime = now;
+        this.creationTime = now;
     }
 
     @Override
     public FileTime lastModifiedTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return lastModifiedTime;
     }
 
     @Override
     public FileTime lastAccessTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return lastAccessTime;
     }
 
     @Override
     public FileTime creationTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return creationTime;
     }
 
     @Override
@@ -55,13 +65,49 @@ abstract class BoxFsAttributes implements BasicFileAttributes {
 
     @Override
     public Object fileKey() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return null;
     }
 
     public BoxFsBasicAttributesMap toMap() {
         return attributes;
     }
 
+    public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime creationTime) {
+        if (lastModifiedTime != null) {
+            this.lastModifiedTime = lastModifiedTime;
+        }
+
+        if (lastAccessTime != null) {
+            this.lastAccessTime = lastAccessTime;
+        }
+
+        if (creationTime != null) {
+            this.creationTime = creationTime;
+        }
+    }
+
+    public void modified(FileTime now) {
+        lastModifiedTime = now;
+    }
+
+    public void accessed(Clock clock) {
+        FileTime accessed = lastAccessTime;
+
+        if (accessed.compareTo(lastModifiedTime) > 0
+                && clock.millis() - accessed.toMillis() < RELATIME_INTERVAL_MILLIS) {
+            return;
+        }
+
+        lastAccessTime = FileTime.from(clock.instant());
+    }
+
+    public void copyFrom(BoxFsAttributes other) {
+        attributes.putAll(other.attributes);
+        this.lastModifiedTime = other.lastModifiedTime;
+        this.lastAccessTime = other.lastAccessTime;
+        this.creationTime = other.creationTime;
+    }
+
     public boolean isReadonly() {
         return attributes.isTrue(BoxFsBasicAttributesKey.READONLY);
     }
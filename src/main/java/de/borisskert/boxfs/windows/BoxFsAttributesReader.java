@@ -0,0 +1,67 @@
+package de.borisskert.boxfs.windows;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+class BoxFsAttributesReader {
+    private static final Map<String, Function<BoxFsAttributes, Object>> BASIC = new LinkedHashMap<>();
+    private static final Map<String, Function<BoxFsAttributes, Object>> DOS = new LinkedHashMap<>();
+
+    static {
+        BASIC.put("lastModifiedTime", BoxFsAttributes::lastModifiedTime);
+        BASIC.put("lastAccessTime", BoxFsAttributes::lastAccessTime);
+        BASIC.put("creationTime", BoxFsAttributes::creationTime);
+        BASIC.put("size", BoxFsAttributes::size);
+        BASIC.put("isRegularFile", BoxFsAttributes::isRegularFile);
+        BASIC.put("isDirectory", BoxFsAttributes::isDirectory);
+        BASIC.put("isSymbolicLink", BoxFsAttributes::isSymbolicLink);
+        BASIC.put("isOther", BoxFsAttributes::isOther);
+        BASIC.put("fileKey", BoxFsAttributes::fileKey);
+
+        DOS.putAll(BASIC);
+        DOS.put("readonly", attributes -> attributes.toMap().isTrue(BoxFsBasicAttributesKey.READONLY));
+        DOS.put("hidden", attributes -> attributes.toMap().isTrue(BoxFsBasicAttributesKey.HIDDEN));
+        DOS.put("system", attributes -> attributes.toMap().isTrue(BoxFsBasicAttributesKey.SYSTEM));
+        DOS.put("archive", attributes -> attributes.toMap().isTrue(BoxFsBasicAttributesKey.ARCHIVE));
+    }
+
+    private BoxFsAttributesReader() {
+    }
+
+    static Map<String, Object> read(BoxFsAttributes attributes, String requested) {
+        int colon = requested.indexOf(':');
+        String view = colon < 0 ? "basic" : requested.substring(0, colon);
+        Map<String, Function<BoxFsAttributes, Object>> readers = readers(view);
+
+        Map<String, Object> result = new HashMap<>();
+
+        for (String name : requested.substring(colon + 1).split(",")) {
+            if ("*".equals(name)) {
+                readers.forEach((key, reader) -> result.put(key, reader.apply(attributes)));
+                continue;
+            }
+
+            Function<BoxFsAttributes, Object> reader = readers.get(name);
+            if (reader == null) {
+                throw new IllegalArgumentException("'" + name + "' not recognized");
+            }
+
+            result.put(name, reader.apply(attributes));
+        }
+
+        return result;
+    }
+
+    private static Map<String, Function<BoxFsAttributes, Object>> readers(String view) {
+        switch (view) {
+            case "basic":
+                return BASIC;
+            case "dos":
+                return DOS;
+            default:
+                throw new UnsupportedOperationException("View '" + view + "' not available");
+        }
+    }
+}
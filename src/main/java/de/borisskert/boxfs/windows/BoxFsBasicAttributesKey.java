@@ -4,6 +4,9 @@ import java.util.Objects;
 
 class BoxFsBasicAttributesKey {
     public static final BoxFsBasicAttributesKey READONLY = new BoxFsBasicAttributesKey("dos:readonly");
+    public static final BoxFsBasicAttributesKey HIDDEN = new BoxFsBasicAttributesKey("dos:hidden");
+    public static final BoxFsBasicAttributesKey SYSTEM = new BoxFsBasicAttributesKey("dos:system");
+    public static final BoxFsBasicAttributesKey ARCHIVE = new BoxFsBasicAttributesKey("dos:archive");
 
     private final String name;
     private final String attribute;
@@ -1,6 +1,5 @@
 package de.borisskert.boxfs.windows;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -18,12 +17,9 @@ class BoxFsBasicAttributesMap {
         return this;
     }
 
-    public Map<String, Object> readAttributes(String attributes) {
-        BoxFsBasicAttributesKey key = BoxFsBasicAttributesKey.of(attributes);
-
-        return Optional.ofNullable(attributesMap.get(key)).map(
-                v -> Collections.singletonMap(key.getName(), v)
-        ).orElse(Collections.emptyMap());
+    public BoxFsBasicAttributesMap putAll(BoxFsBasicAttributesMap other) {
+        attributesMap.putAll(other.attributesMap);
+        return this;
     }
 
     public static BoxFsBasicAttributesMap empty() {
@@ -2,68 +2,75 @@ package de.borisskert.boxfs.windows;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class BoxFsDirectory implements BoxFsNode {
 
     private final BoxFsFileSystem fileSystem;
-    private final BoxFsNode parent;
-    private final String name;
-    private final Map<BoxFsFileName, BoxFsNode> children = new ConcurrentHashMap<>();
+    private volatile BoxFsNode parent;
+    private volatile String name;
+    private final Map<BoxFsFileName, BoxFsNode> children;
 
-    private final BoxFsDirectoryAttributes attributes = new BoxFsDirectoryAttributes();
-    private final BoxFsFileAttributeView attributeView = new BoxFsFileAttributeView(
-            new BoxFsDirectoryAttributes()
-    );
+    private volatile BoxFsDirectory template;
+
+    private final BoxFsDirectoryAttributes attributes;
+    private final BoxFsFileAttributeView attributeView;
 
     BoxFsDirectory(BoxFsFileSystem fileSystem, BoxFsNode parent, String name) {
+        this(fileSystem, parent, name, null);
+    }
+
+    private BoxFsDirectory(BoxFsFileSystem fileSystem, BoxFsNode parent, String name, BoxFsDirectory template) {
         this.fileSystem = fileSystem;
+        this.children = fileSystem.newChildren();
         this.parent = parent;
         this.name = name;
+        this.template = template;
+        this.attributes = new BoxFsDirectoryAttributes(fileSystem.now());
+        this.attributeView = new BoxFsFileAttributeView(attributes);
     }
 
     @Override
-    public void createDirectory(Path path) throws IOException {
-        BoxFsFileName directoryName = BoxFsFileName.of(path.getName(0).toString());
+    public void createDirectory(BoxFsPathSegments path, int index) throws IOException {
+        BoxFsFileName childName = path.fileName(index);
+
+        if (index == path.count() - 1) {
+            BoxFsDirectory directory = newDirectory(childName.name());
 
-        if (path.getNameCount() == 1) {
-            if (children.containsKey(directoryName)) {
+            if (entries().putIfAbsent(childName, directory) != null) {
                 throw new FileAlreadyExistsException(path.toString());
             }
 
-            children.put(
-                    directoryName,
-                    new BoxFsDirectory(fileSystem, this, directoryName.name())
-            );
+            created(childName.name(), directory);
         } else {
-            BoxFsNode nextDirectory = children.computeIfAbsent(
-                    directoryName,
-                    name -> new BoxFsDirectory(fileSystem, this, name.name())
-            );
-
-            nextDirectory.createDirectory(path.subpath(1, path.getNameCount()));
+            childDirectory(childName).createDirectory(path, index + 1);
         }
     }
 
     @Override
-    public void createFile(Path path) throws IOException {
-        if (path.getNameCount() < 1) {
+    public void createFile(BoxFsPathSegments path, int index) throws IOException {
+        if (index >= path.count()) {
             return;
         }
 
-        BoxFsFileName childName = BoxFsFileName.of(path.getName(0).toString());
+        BoxFsFileName childName = path.fileName(index);
 
-        if (path.getNameCount() == 1) {
-            BoxFsNode existing = children.get(childName);
+        if (index == path.count() - 1) {
+            BoxFsFile file = newFile(childName.name());
+            BoxFsNode existing = entries().putIfAbsent(childName, file);
             if (existing != null) {
                 if (existing.isDirectory()) {
                     throw new AccessDeniedException(path.toString());
@@ -72,53 +79,92 @@ class BoxFsDirectory implements BoxFsNode {
                 throw new FileAlreadyExistsException(path.toString());
             }
 
-            children.put(
-                    childName,
-                    new BoxFsFile(fileSystem, this, childName.name())
-            );
+            created(childName.name(), file);
         } else {
-            BoxFsNode nextDirectory = children.computeIfAbsent(
-                    childName,
-                    name -> new BoxFsDirectory(fileSystem, this, name.name())
-            );
-
-            nextDirectory.createFile(path.subpath(1, path.getNameCount()));
+            childDirectory(childName).createFile(path, index + 1);
         }
     }
 
     @Override
-    public void delete(Path path) throws IOException {
-        if (path.getNameCount() < 1) {
+    public void delete(BoxFsPathSegments path, int index) throws IOException {
+        if (index >= path.count()) {
             return;
         }
 
-        if (path.getNameCount() == 1) {
-            children.remove(BoxFsFileName.of(path.getName(0).toString()));
+        if (index == path.count() - 1) {
+            BoxFsFileName name = path.fileName(index);
+            BoxFsNode removed = entries().remove(name);
+
+            if (removed != null) {
+                fileSystem.fileStore().removeNodes(removed);
+                removed.unlink();
+                attributes.modified(fileSystem.now());
+                signal(StandardWatchEventKinds.ENTRY_DELETE, name.name());
+
+                if (removed.isDirectory()) {
+                    fileSystem.watchRegistry().removed(removed);
+                }
+            }
+
             return;
         }
 
-        children.get(
-                BoxFsFileName.of(path.getName(0).toString())
-        ).delete(
-                path.subpath(1, path.getNameCount())
-        );
+        entries().get(
+                path.fileName(index)
+        ).delete(path, index + 1);
     }
 
     @Override
-    public boolean exists(Path path) {
-        if (path.getNameCount() < 1) {
+    public void attachChild(String name, BoxFsNode child) {
+        entries().put(BoxFsFileName.of(name), child);
+        child.relink(this, name);
+        attributes.modified(fileSystem.now());
+        signal(StandardWatchEventKinds.ENTRY_CREATE, name);
+    }
+
+    @Override
+    public void detachChild(String name) {
+        entries().remove(BoxFsFileName.of(name));
+        attributes.modified(fileSystem.now());
+        signal(StandardWatchEventKinds.ENTRY_DELETE, name);
+    }
+
+    @Override
+    public void relink(BoxFsNode parent, String name) {
+        this.parent = parent;
+        this.name = name;
+    }
+
+    @Override
+    public BoxFsNode copy(BoxFsNode parent, String name) {
+        BoxFsDirectory copy = new BoxFsDirectory(fileSystem, parent, name, this);
+        copy.attributes.copyFrom(attributes);
+
+        return copy;
+    }
+
+    void materialize() {
+        entries().values().stream()
+                .filter(BoxFsDirectory.class::isInstance)
+                .map(BoxFsDirectory.class::cast)
+                .forEach(BoxFsDirectory::materialize);
+    }
+
+    @Override
+    public boolean exists(BoxFsPathSegments path, int index) {
+        if (index >= path.count()) {
             return false;
         }
 
-        String name = path.getName(0).toString();
+        BoxFsFileName childName = path.fileName(index);
 
-        if (path.getNameCount() == 1) {
-            return children.containsKey(BoxFsFileName.of(name));
+        if (index == path.count() - 1) {
+            return entries().containsKey(childName);
         }
 
-        return children.containsKey(BoxFsFileName.of(name))
-                && children.get(BoxFsFileName.of(name))
-                .exists(path.subpath(1, path.getNameCount()));
+        BoxFsNode child = entries().get(childName);
+
+        return child != null && child.exists(path, index + 1);
     }
 
     @Override
@@ -142,42 +188,144 @@ class BoxFsDirectory implements BoxFsNode {
     }
 
     @Override
-    public Optional<BoxFsNode> readNode(Path path) {
-        if (path.getNameCount() < 1) {
+    public Optional<BoxFsNode> readNode(BoxFsPathSegments path, int index) {
+        if (index >= path.count()) {
             throw new IllegalArgumentException("Path must not be empty");
         }
 
-        String name = path.getName(0).toString();
+        BoxFsFileName childName = path.fileName(index);
 
-        if (path.getNameCount() == 1) {
-            return Optional.ofNullable(children.get(BoxFsFileName.of(name)));
+        if (index == path.count() - 1) {
+            return Optional.ofNullable(entries().get(childName));
         }
 
         return Optional.ofNullable(
-                children.get(BoxFsFileName.of(name))
+                entries().get(childName)
         ).flatMap(
-                n -> n.readNode(path.subpath(1, path.getNameCount()))
+                n -> n.readNode(path, index + 1)
         );
     }
 
     @Override
-    public void writeContent(Path path, ByteBuffer buffer) {
-        if (path.getNameCount() < 1) {
+    public void writeContent(BoxFsPathSegments path, int index, ByteBuffer buffer) {
+        if (index >= path.count()) {
             throw new IllegalArgumentException("Path must not be empty");
         }
 
-        String name = path.getName(0).toString();
+        BoxFsFileName childName = path.fileName(index);
 
-        if (path.getNameCount() == 1) {
-            children.get(BoxFsFileName.of(name)).writeContent(null, buffer);
-        } else {
-            children.get(
-                    BoxFsFileName.of(name)
-            ).writeContent(
-                    path.subpath(1, path.getNameCount()),
-                    buffer
-            );
+        entries().get(childName).writeContent(path, index + 1, buffer);
+    }
+
+    @Override
+    public int readContent(long position, ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Cannot read content from a directory");
+    }
+
+    @Override
+    public int writeContent(long position, ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public long appendContent(ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public void truncateContent(long size) throws IOException {
+        throw new UnsupportedOperationException("Cannot truncate a directory");
+    }
+
+    @Override
+    public long transferContentTo(long position, long count, WritableByteChannel target) throws IOException {
+        throw new UnsupportedOperationException("Cannot read content from a directory");
+    }
+
+    @Override
+    public long transferContentFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public void copyContentFrom(BoxFsNode source) throws IOException {
+        throw new UnsupportedOperationException("Cannot write content to a directory");
+    }
+
+    @Override
+    public void retain() {
+        throw new UnsupportedOperationException("Cannot open a channel on a directory");
+    }
+
+    @Override
+    public void release() {
+        throw new UnsupportedOperationException("Cannot open a channel on a directory");
+    }
+
+    @Override
+    public BoxFsLockTable lockTable() {
+        throw new UnsupportedOperationException("Cannot open a channel on a directory");
+    }
+
+    @Override
+    public void unlink() {
+        // a pending template has no copies to release yet, but must not materialize any after deletion
+        synchronized (this) {
+            template = null;
+        }
+
+        children.values().forEach(BoxFsNode::unlink);
+    }
+
+    @Override
+    public long nodeCount() {
+        BoxFsDirectory template = this.template;
+
+        if (template != null) {
+            return template.nodeCount();
+        }
+
+        long count = 1;
+
+        for (BoxFsNode child : children.values()) {
+            count += child.nodeCount();
         }
+
+        return count;
+    }
+
+    @Override
+    public long fileCount() {
+        BoxFsDirectory template = this.template;
+
+        if (template != null) {
+            return template.fileCount();
+        }
+
+        long count = 0;
+
+        for (BoxFsNode child : children.values()) {
+            count += child.fileCount();
+        }
+
+        return count;
+    }
+
+    @Override
+    public int height() {
+        BoxFsDirectory template = this.template;
+
+        if (template != null) {
+            return template.height();
+        }
+
+        int height = 0;
+
+        for (BoxFsNode child : children.values()) {
+            height = Math.max(height, child.height() + 1);
+        }
+
+        return height;
     }
 
     @Override
@@ -201,11 +349,23 @@ class BoxFsDirectory implements BoxFsNode {
 
     @Override
     public Collection<String> children() {
-        return children.keySet().stream()
+        return entries().keySet().stream()
                 .map(BoxFsFileName::name)
                 .collect(Collectors.toSet());
     }
 
+    @Override
+    public Collection<BoxFsNode> childNodes() {
+        return entries().values();
+    }
+
+    @Override
+    public Stream<String> childNames() {
+        return entries().keySet()
+                .stream()
+                .map(BoxFsFileName::name);
+    }
+
     @Override
     public Optional<BoxFsNode> parent() {
         return Optional.ofNullable(parent);
@@ -225,6 +385,57 @@ class BoxFsDirectory implements BoxFsNode {
         throw new UnsupportedOperationException("Not supported to get root directories from directory");
     }
 
+    private BoxFsNode childDirectory(BoxFsFileName childName) {
+        BoxFsNode existing = entries().get(childName);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        BoxFsDirectory directory = newDirectory(childName.name());
+        existing = entries().putIfAbsent(childName, directory);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        created(childName.name(), directory);
+        return directory;
+    }
+
+    private BoxFsDirectory newDirectory(String name) {
+        return new BoxFsDirectory(fileSystem, this, name);
+    }
+
+    private BoxFsFile newFile(String name) {
+        return new BoxFsFile(fileSystem, this, name);
+    }
+
+    private void created(String name, BoxFsNode node) {
+        fileSystem.fileStore().addNodes(node);
+        attributes.modified(fileSystem.now());
+        signal(StandardWatchEventKinds.ENTRY_CREATE, name);
+    }
+
+    private void signal(WatchEvent.Kind<Path> kind, String name) {
+        fileSystem.watchRegistry().signal(this, kind, name);
+    }
+
+    private Map<BoxFsFileName, BoxFsNode> entries() {
+        if (template != null) {
+            synchronized (this) {
+                if (template != null) {
+                    template.entries().forEach(
+                            (key, child) -> children.put(key, child.copy(this, key.name()))
+                    );
+                    template = null;
+                }
+            }
+        }
+
+        return children;
+    }
+
     @Override
     public String toString() {
         return name;
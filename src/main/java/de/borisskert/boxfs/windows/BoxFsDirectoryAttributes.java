@@ -1,25 +1,11 @@
 package de.borisskert.boxfs.windows;
 
+import java.nio.file.AccessMode;
 import java.nio.file.attribute.FileTime;
 
 class BoxFsDirectoryAttributes extends BoxFsAttributes {
-    public BoxFsDirectoryAttributes() {
-        super(BoxFsBasicAttributesMap.empty().put("dos:readonly", Boolean.FALSE));
-    }
-
-    @Override
-    public FileTime lastModifiedTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime lastAccessTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime creationTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
+    public BoxFsDirectoryAttributes(FileTime now) {
+        super(BoxFsBasicAttributesMap.empty().put("dos:readonly", Boolean.FALSE), now);
     }
 
     @Override
@@ -39,16 +25,21 @@ class BoxFsDirectoryAttributes extends BoxFsAttributes {
 
     @Override
     public boolean isOther() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return false;
     }
 
     @Override
     public long size() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return 0;
     }
 
     @Override
     public Object fileKey() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return null;
+    }
+
+    @Override
+    public void checkAccess(AccessMode[] modes) {
+        // windows does not enforce the read-only attribute on directories
     }
 }
@@ -24,6 +24,6 @@ class BoxFsFileAttributeView implements BasicFileAttributeView {
 
     @Override
     public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) throws IOException {
-        throw new UnsupportedOperationException("Not implemented yet");
+        attributes.setTimes(lastModifiedTime, lastAccessTime, createTime);
     }
 }
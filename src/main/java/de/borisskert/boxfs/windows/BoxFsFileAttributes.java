@@ -6,26 +6,11 @@ import java.util.function.Supplier;
 class BoxFsFileAttributes extends BoxFsAttributes {
     private final Supplier<Long> sizeSupplier;
 
-    public BoxFsFileAttributes(Supplier<Long> sizeSupplier) {
-        super(BoxFsBasicAttributesMap.empty());
+    public BoxFsFileAttributes(Supplier<Long> sizeSupplier, FileTime now) {
+        super(BoxFsBasicAttributesMap.empty(), now);
         this.sizeSupplier = sizeSupplier;
     }
 
-    @Override
-    public FileTime lastModifiedTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime lastAccessTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public FileTime creationTime() {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
     @Override
     public boolean isRegularFile() {
         return true;
@@ -43,7 +28,7 @@ class BoxFsFileAttributes extends BoxFsAttributes {
 
     @Override
     public boolean isOther() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return false;
     }
 
     @Override
@@ -53,6 +38,6 @@ class BoxFsFileAttributes extends BoxFsAttributes {
 
     @Override
     public Object fileKey() {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return null;
     }
 }
@@ -0,0 +1,31 @@
+package de.borisskert.boxfs.windows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+class BoxFsFileLock extends FileLock {
+    private final BoxFsLockTable table;
+    private volatile boolean valid = true;
+
+    BoxFsFileLock(BoxFsLockTable table, FileChannel channel, long position, long size, boolean shared) {
+        super(channel, position, size, shared);
+        this.table = table;
+    }
+
+    @Override
+    public boolean isValid() {
+        return valid && channel().isOpen();
+    }
+
+    @Override
+    public void release() throws IOException {
+        if (valid) {
+            table.release(this);
+        }
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+}
@@ -1,22 +1,30 @@
 package de.borisskert.boxfs.windows;
 
 import java.io.FileNotFoundException;
+import de.borisskert.boxfs.BoxFsMetrics;
+import de.borisskert.boxfs.BoxFsOperation;
+import de.borisskert.boxfs.BoxFsTreeOperations;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
-import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.*;
 import java.nio.file.spi.FileSystemProvider;
 import java.util.*;
 
-class BoxFsFileSystemProvider extends FileSystemProvider {
-    private final BoxFsNode fileTree;
+class BoxFsFileSystemProvider extends FileSystemProvider implements BoxFsTreeOperations {
+    private final BoxFsTree fileTree;
+    private final BoxFsFileStore fileStore;
+    private final BoxFsMetrics metrics;
 
-    BoxFsFileSystemProvider(BoxFsNode fileTree, String separator) {
+    BoxFsFileSystemProvider(BoxFsTree fileTree, BoxFsFileStore fileStore, BoxFsMetrics metrics, String separator) {
         this.fileTree = fileTree;
+        this.fileStore = fileStore;
+        this.metrics = metrics;
     }
 
     @Override
@@ -41,136 +49,280 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
-        boolean create = options.contains(StandardOpenOption.CREATE);
-        boolean createNew = options.contains(StandardOpenOption.CREATE_NEW);
-        boolean write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
-
-        if (createNew || (create && Files.notExists(path))) {
-            checkAccess(path.getParent(), AccessMode.WRITE);
-            fileTree.createFile(path);
-        } else if (!fileTree.exists(path)) {
-            throw new NoSuchFileException(path.toString());
-        } else if (write) {
-            checkAccess(path, AccessMode.WRITE);
-        }
+        return newFileChannel(path, options, attrs);
+    }
+
+    @Override
+    public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+        long start = metrics.start();
+
+        try {
+            boolean create = options.contains(StandardOpenOption.CREATE);
+            boolean createNew = options.contains(StandardOpenOption.CREATE_NEW);
+            boolean write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
+            boolean append = options.contains(StandardOpenOption.APPEND);
+            boolean truncateExisting = options.contains(StandardOpenOption.TRUNCATE_EXISTING);
+
+            if (append && (truncateExisting || options.contains(StandardOpenOption.READ))) {
+                throw new IllegalArgumentException("APPEND cannot be combined with READ or TRUNCATE_EXISTING");
+            }
+
+            BoxFsLookup lookup = fileTree.resolve(path);
+            BoxFsNode file;
+
+            if (createNew || (create && !lookup.exists())) {
+                BoxFsNode parent = lookup.parent()
+                        .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+                checkAccess(parent, AccessMode.WRITE);
+                file = lookup.createFile();
+            } else {
+                file = lookup.node()
+                        .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+                if (write) {
+                    checkAccess(file, AccessMode.WRITE);
+                }
+            }
+
+            BoxFsFileChannel channel = new BoxFsFileChannel(file, options, ((BoxFsFileSystem) path.getFileSystem()).pageAllocator(), metrics);
 
-        return new BoxFsByteChannel(path, fileTree);
+            if (write && truncateExisting) {
+                channel.truncate(0);
+            }
+
+            return channel;
+        } finally {
+            metrics.record(BoxFsOperation.OPEN, start);
+        }
     }
 
     @Override
     public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
-        return new BoxFsDirectoryStream(dir, fileTree);
+        long start = metrics.start();
+
+        try {
+            BoxFsNode directory = fileTree.readNode(dir)
+                    .orElseThrow(() -> new NoSuchFileException(dir.toString()));
+
+            if (!directory.isDirectory()) {
+                throw new NotDirectoryException(dir.toString());
+            }
+
+            return new BoxFsDirectoryStream(dir, directory, filter, metrics, start);
+        } catch (IOException | RuntimeException e) {
+            metrics.record(BoxFsOperation.LIST, start);
+            throw e;
+        }
     }
 
     @Override
     public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
-        checkAccess(dir.getParent(), AccessMode.WRITE); // TODO test
-        fileTree.createDirectory(dir);
+        long start = metrics.start();
+
+        try {
+            BoxFsLookup lookup = fileTree.resolve(dir);
+            BoxFsNode parent = lookup.parent()
+                    .orElseThrow(() -> new NoSuchFileException(dir.toString()));
+
+            checkAccess(parent, AccessMode.WRITE); // TODO test
+            lookup.createDirectory();
+        } finally {
+            metrics.record(BoxFsOperation.CREATE_DIRECTORY, start);
+        }
     }
 
     @Override
     public void delete(Path path) throws IOException {
-        checkAccess(path, AccessMode.WRITE);
-        fileTree.delete(path);
+        long start = metrics.start();
+
+        try {
+            checkAccess(path, AccessMode.WRITE);
+            fileTree.delete(path);
+        } finally {
+            metrics.record(BoxFsOperation.DELETE, start);
+        }
     }
 
     @Override
     public void copy(Path source, Path target, CopyOption... options) throws IOException {
-        if (source.equals(target)) {
-            return;
-        }
+        long start = metrics.start();
 
-        boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
-
-        if (fileTree.exists(target)) {
-            if (isSameFile(source, target)) {
+        try {
+            if (source.equals(target)) {
                 return;
             }
 
-            if (replaceExisting) {
-                fileTree.delete(target);
-            } else {
-                throw new FileAlreadyExistsException(target.toString());
+            boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+
+            if (fileTree.exists(target)) {
+                if (isSameFile(source, target)) {
+                    return;
+                }
+
+                if (replaceExisting) {
+                    fileTree.delete(target);
+                } else {
+                    throw new FileAlreadyExistsException(target.toString());
+                }
             }
-        }
 
-        Optional<BoxFsNode> node = fileTree.readNode(source);
-        if (!node.isPresent()) {
-            throw new NoSuchFileException(source.toString());
-        }
+            Optional<BoxFsNode> node = fileTree.readNode(source);
+            if (!node.isPresent()) {
+                throw new NoSuchFileException(source.toString());
+            }
 
-        if (node.get().attributes().isDirectory()) {
-            fileTree.createDirectory(target);
-        } else {
-            copyFile(node.get(), target);
+            if (node.get().attributes().isDirectory()) {
+                fileTree.createDirectory(target);
+            } else {
+                copyFile(node.get(), target);
+            }
+        } finally {
+            metrics.record(BoxFsOperation.COPY, start);
         }
     }
 
     private void copyFile(BoxFsNode boxFsNode, Path target) throws IOException {
-        byte[] content = boxFsNode.content();
         fileTree.createFile(target);
-        fileTree.writeContent(target, ByteBuffer.wrap(content));
+        fileTree.readNode(target)
+                .orElseThrow(() -> new NoSuchFileException(target.toString()))
+                .copyContentFrom(boxFsNode);
     }
 
     @Override
     public void move(Path source, Path target, CopyOption... options) throws IOException {
-        if (source.equals(target)) {
-            return;
-        }
+        long start = metrics.start();
+
+        try {
+            if (source.equals(target)) {
+                return;
+            }
+
+            BoxFsNode node = fileTree.readNode(source)
+                    .orElseThrow(() -> new NoSuchFileException(source.toString()));
+            BoxFsNode sourceParent = node.parent()
+                    .orElseThrow(() -> new FileSystemException(source.toString(), target.toString(), "Cannot move a root directory"));
+            BoxFsNode targetParent = readParentNode(target)
+                    .filter(BoxFsNode::isDirectory)
+                    .orElseThrow(() -> new NoSuchFileException(target.toString()));
+
+            if (isSameOrAncestor(node, targetParent)) {
+                throw new FileSystemException(source.toString(), target.toString(), "Cannot move a directory into itself");
+            }
+
+            Optional<BoxFsNode> existing = fileTree.readNode(target);
+
+            if (existing.isPresent() && existing.get() != node) {
+                boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+
+                if (!replaceExisting) {
+                    throw new FileAlreadyExistsException(target.toString());
+                }
+
+                if (existing.get().isDirectory() && !existing.get().children().isEmpty()) {
+                    throw new DirectoryNotEmptyException(target.toString());
+                }
 
-        moveRecursively(source, target, options);
+                fileTree.delete(target);
+            }
+
+            sourceParent.detachChild(source.getFileName().toString());
+            targetParent.attachChild(target.getFileName().toString(), node);
+
+            fileTree.invalidate(source, node);
+        } finally {
+            metrics.record(BoxFsOperation.MOVE, start);
+        }
     }
 
-    private void moveRecursively(Path source, Path target, CopyOption... options) throws IOException {
-        Optional<BoxFsNode> node = fileTree.readNode(source);
-        if (!node.isPresent()) {
-            throw new NoSuchFileException(source.toString());
+    @Override
+    public void deleteTree(Path path) throws IOException {
+        long start = metrics.start();
+
+        try {
+            BoxFsNode node = fileTree.readNode(path)
+                    .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+            if (!node.parent().isPresent()) {
+                throw new FileSystemException(path.toString(), null, "Cannot delete a root directory");
+            }
+
+            checkAccess(path, AccessMode.WRITE);
+
+            fileTree.delete(path);
+        } finally {
+            metrics.record(BoxFsOperation.DELETE, start);
         }
+    }
+
+    @Override
+    public void copyTree(Path source, Path target, CopyOption... options) throws IOException {
+        long start = metrics.start();
+
+        try {
+            BoxFsNode node = fileTree.readNode(source)
+                    .orElseThrow(() -> new NoSuchFileException(source.toString()));
+            BoxFsNode targetParent = readParentNode(target)
+                    .filter(BoxFsNode::isDirectory)
+                    .orElseThrow(() -> new NoSuchFileException(target.toString()));
+
+            if (isSameOrAncestor(node, targetParent)) {
+                throw new FileSystemException(source.toString(), target.toString(), "Cannot copy a directory into itself");
+            }
 
-        boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
+            Optional<BoxFsNode> existing = fileTree.readNode(target);
 
-        if (node.get().attributes().isDirectory()) {
-            if (fileTree.exists(target)) {
-                if (replaceExisting) {
-                    if (fileTree.isDirectory(target) && hasChildren(target)) {
-                        throw new DirectoryNotEmptyException(target.toString());
-                    }
+            if (existing.isPresent()) {
+                if (existing.get() == node) {
+                    return;
+                }
 
-                    deleteRecursively(target);
-                } else {
+                if (!Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING)) {
                     throw new FileAlreadyExistsException(target.toString());
                 }
-            }
 
-            fileTree.createDirectory(target);
-            try (DirectoryStream<Path> stream = newDirectoryStream(source, entry -> true)) {
-                for (Path entry : stream) {
-                    Path targetEntry = target.resolve(entry.getFileName().toString());
-                    moveRecursively(entry, targetEntry, options);
+                if (isSameOrAncestor(existing.get(), node)) {
+                    throw new FileSystemException(source.toString(), target.toString(), "Cannot replace an ancestor of the source");
                 }
+
+                checkAccess(target, AccessMode.WRITE);
+                fileTree.delete(target);
             }
-        } else {
-            copy(source, target, options);
-        }
 
-        delete(source);
+            copyNode(node, targetParent, target.getFileName().toString());
+        } finally {
+            metrics.record(BoxFsOperation.COPY, start);
+        }
     }
 
-    private boolean hasChildren(Path path) throws IOException {
-        try (DirectoryStream<Path> stream = newDirectoryStream(path, entry -> true)) {
-            return stream.iterator().hasNext();
+    private void copyNode(BoxFsNode source, BoxFsNode targetParent, String name) {
+        BoxFsNode copy = source.copy(null, name);
+
+        if (copy instanceof BoxFsDirectory) {
+            ((BoxFsDirectory) copy).materialize();
         }
+
+        fileStore.addNodes(copy);
+        targetParent.attachChild(name, copy);
     }
 
-    private void deleteRecursively(Path path) throws IOException {
-        if (fileTree.isDirectory(path)) {
-            try (DirectoryStream<Path> stream = newDirectoryStream(path, entry -> true)) {
-                for (Path entry : stream) {
-                    deleteRecursively(entry);
-                }
+    private Optional<BoxFsNode> readParentNode(Path path) {
+        return Optional.ofNullable(path.toAbsolutePath().getParent())
+                .flatMap(fileTree::readNode);
+    }
+
+    private static boolean isSameOrAncestor(BoxFsNode node, BoxFsNode descendant) {
+        Optional<BoxFsNode> current = Optional.of(descendant);
+
+        while (current.isPresent()) {
+            if (current.get() == node) {
+                return true;
             }
+
+            current = current.get().parent();
         }
-        delete(path);
+
+        return false;
     }
 
     @Override
@@ -192,7 +344,7 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public boolean isHidden(Path path) throws IOException {
-        if (Files.notExists(path)) {
+        if (!fileTree.exists(path)) {
             throw new NoSuchFileException(path.toString());
         }
 
@@ -201,18 +353,22 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public FileStore getFileStore(Path path) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public void checkAccess(Path path, AccessMode... modes) throws IOException {
         if (!fileTree.exists(path)) {
             throw new NoSuchFileException(path.toString());
         }
 
+        return fileStore;
+    }
+
+    @Override
+    public void checkAccess(Path path, AccessMode... modes) throws IOException {
         BoxFsNode boxFsNode = fileTree.readNode(path)
-                .orElseThrow(() -> new RuntimeException("Not yet implemented"));
+                .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+        checkAccess(boxFsNode, modes);
+    }
 
+    private void checkAccess(BoxFsNode boxFsNode, AccessMode... modes) throws IOException {
         BoxFsFileAttributeView view = boxFsNode.fileAttributeView();
         BoxFsAttributes attributes = (BoxFsAttributes) view.readAttributes();
 
@@ -232,28 +388,33 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
 
     @Override
     public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
-        if (PosixFileAttributes.class.equals(type)) {
-            throw new UnsupportedOperationException("PosixFileAttributes not supported");
-        }
+        long start = metrics.start();
+
+        try {
+            if (PosixFileAttributes.class.equals(type)) {
+                throw new UnsupportedOperationException("PosixFileAttributes not supported");
+            }
 
-        if (fileTree.exists(path)) {
             return fileTree.readNode(path).map(BoxFsNode::attributes)
                     .map(a -> (A) a)
-                    .orElseThrow(() -> new RuntimeException("Not yet implemented"));
-        } else {
-            throw new NoSuchFileException(path.toString());
+                    .orElseThrow(() -> new NoSuchFileException(path.toString()));
+        } finally {
+            metrics.record(BoxFsOperation.READ_ATTRIBUTES, start);
         }
     }
 
     @Override
     public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
-        BoxFsBasicAttributesMap attributesAsMap = fileTree.readNode(path)
-                .map(BoxFsNode::attributes)
-                .map(a -> (BoxFsAttributes) a)
-                .map(BoxFsAttributes::toMap)
-                .orElseThrow(() -> new NoSuchFileException(path.toString()));
+        long start = metrics.start();
 
-        return attributesAsMap.readAttributes(attributes);
+        try {
+            BoxFsNode node = fileTree.readNode(path)
+                    .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+            return BoxFsAttributesReader.read(node.attributes(), attributes);
+        } finally {
+            metrics.record(BoxFsOperation.READ_ATTRIBUTES, start);
+        }
     }
 
     @Override
@@ -306,9 +467,10 @@ class BoxFsFileSystemProvider extends FileSystemProvider {
         if (set.isEmpty()) {
             set.add(StandardOpenOption.CREATE);
             set.add(StandardOpenOption.TRUNCATE_EXISTING);
-            set.add(StandardOpenOption.WRITE);
         }
 
+        set.add(StandardOpenOption.WRITE);
+
         return Channels.newOutputStream(newByteChannel(path, set));
     }
 }
@@ -0,0 +1,40 @@
+package de.borisskert.boxfs.windows;
+
+import de.borisskert.boxfs.BoxFsSnapshot;
+
+import java.util.Map;
+
+class BoxFsFileSystemSnapshot implements BoxFsSnapshot {
+    private final BoxFsFileSystem fileSystem;
+    private final Map<Character, BoxFsDrive> drives;
+    private final long nodeCount;
+    private final long fileCount;
+
+    BoxFsFileSystemSnapshot(BoxFsFileSystem fileSystem, Map<Character, BoxFsDrive> drives, long nodeCount, long fileCount) {
+        this.fileSystem = fileSystem;
+        this.drives = drives;
+        this.nodeCount = nodeCount;
+        this.fileCount = fileCount;
+    }
+
+    @Override
+    public void restore() {
+        fileSystem.restore(this);
+    }
+
+    BoxFsFileSystem fileSystem() {
+        return fileSystem;
+    }
+
+    Map<Character, BoxFsDrive> drives() {
+        return drives;
+    }
+
+    long nodeCount() {
+        return nodeCount;
+    }
+
+    long fileCount() {
+        return fileCount;
+    }
+}
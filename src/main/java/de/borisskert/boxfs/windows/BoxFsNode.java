@@ -2,24 +2,51 @@ package de.borisskert.boxfs.windows;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttributeView;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 interface BoxFsNode {
-    static BoxFsNode newTree(BoxFsFileSystem fileSystem) {
+    static BoxFsTree newTree(BoxFsFileSystem fileSystem) {
         return new BoxFsTree(fileSystem);
     }
 
-    void createDirectory(Path path) throws IOException;
+    default void createDirectory(Path path) throws IOException {
+        createDirectory(BoxFsPathSegments.of(path), 0);
+    }
+
+    void createDirectory(BoxFsPathSegments path, int index) throws IOException;
+
+    default void createFile(Path path) throws IOException {
+        createFile(BoxFsPathSegments.of(path), 0);
+    }
+
+    void createFile(BoxFsPathSegments path, int index) throws IOException;
+
+    default void delete(Path path) throws IOException {
+        delete(BoxFsPathSegments.of(path), 0);
+    }
+
+    void delete(BoxFsPathSegments path, int index) throws IOException;
 
-    void createFile(Path path) throws IOException;
+    void attachChild(String name, BoxFsNode child);
 
-    void delete(Path path) throws IOException;
+    void detachChild(String name);
 
-    boolean exists(Path path);
+    void relink(BoxFsNode parent, String name);
+
+    BoxFsNode copy(BoxFsNode parent, String name);
+
+    default boolean exists(Path path) {
+        return exists(BoxFsPathSegments.of(path), 0);
+    }
+
+    boolean exists(BoxFsPathSegments path, int index);
 
     boolean isDirectory();
 
@@ -29,9 +56,45 @@ interface BoxFsNode {
 
     boolean isFile(Path path);
 
-    Optional<BoxFsNode> readNode(Path path);
+    default Optional<BoxFsNode> readNode(Path path) {
+        return readNode(BoxFsPathSegments.of(path), 0);
+    }
+
+    Optional<BoxFsNode> readNode(BoxFsPathSegments path, int index);
+
+    default void writeContent(Path path, ByteBuffer buffer) {
+        writeContent(BoxFsPathSegments.of(path), 0, buffer);
+    }
+
+    void writeContent(BoxFsPathSegments path, int index, ByteBuffer buffer);
+
+    int readContent(long position, ByteBuffer buffer) throws IOException;
+
+    int writeContent(long position, ByteBuffer buffer) throws IOException;
+
+    long appendContent(ByteBuffer buffer) throws IOException;
+
+    void truncateContent(long size) throws IOException;
+
+    long transferContentTo(long position, long count, WritableByteChannel target) throws IOException;
+
+    long transferContentFrom(ReadableByteChannel src, long position, long count) throws IOException;
+
+    void copyContentFrom(BoxFsNode source) throws IOException;
 
-    void writeContent(Path path, ByteBuffer buffer);
+    void retain();
+
+    void release();
+
+    BoxFsLockTable lockTable();
+
+    void unlink();
+
+    long nodeCount();
+
+    long fileCount();
+
+    int height();
 
     <A extends BasicFileAttributes> A attributes();
 
@@ -41,6 +104,10 @@ interface BoxFsNode {
 
     Collection<String> children();
 
+    Stream<String> childNames();
+
+    Collection<BoxFsNode> childNodes();
+
     Optional<BoxFsNode> parent();
 
     BoxFsPath path();
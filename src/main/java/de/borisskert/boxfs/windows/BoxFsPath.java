@@ -10,13 +10,19 @@ import java.util.Optional;
 
 class BoxFsPath implements Path {
     private final BoxFsFileSystem fileSystem;
-    private final String path;
+    private String path;
+    private BoxFsPathSegments segments;
 
     BoxFsPath(BoxFsFileSystem fileSystem, String path) {
         this.fileSystem = fileSystem;
         this.path = path;
     }
 
+    private BoxFsPath(BoxFsFileSystem fileSystem, BoxFsPathSegments segments) {
+        this.fileSystem = fileSystem;
+        this.segments = segments;
+    }
+
     @Override
     public BoxFsFileSystem getFileSystem() {
         return fileSystem;
@@ -24,12 +30,12 @@ class BoxFsPath implements Path {
 
     @Override
     public boolean isAbsolute() {
-        return path.matches("^[A-Za-z]:\\\\.*");
+        return toString().matches("^[A-Za-z]:\\\\.*");
     }
 
     @Override
     public BoxFsPath getRoot() {
-        String root = BoxFsPaths.getRoot(path);
+        String root = BoxFsPaths.getRoot(toString());
 
         return Optional.ofNullable(root)
                 .map(path -> new BoxFsPath(fileSystem, path))
@@ -38,32 +44,39 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath getFileName() {
-        String fileName = BoxFsPaths.getFileName(path);
-        return new BoxFsPath(fileSystem, fileName);
+        BoxFsPathSegments segments = segments();
+
+        if (segments.isAbsolute() && segments.count() > 0) {
+            return new BoxFsPath(fileSystem, segments.name(segments.count() - 1));
+        }
+
+        return new BoxFsPath(fileSystem, BoxFsPaths.getFileName(toString()));
     }
 
     @Override
     public BoxFsPath getParent() {
-        return Optional.ofNullable(BoxFsPaths.parentOf(path))
-                .map(p -> new BoxFsPath(fileSystem, p))
-                .orElse(null);
+        BoxFsPathSegments parent = segments().parent();
+
+        if (parent == null) {
+            return null;
+        }
+
+        return new BoxFsPath(fileSystem, parent);
     }
 
     @Override
     public int getNameCount() {
-        return BoxFsPaths.getNameCount(path);
+        return segments().count();
     }
 
     @Override
     public BoxFsPath getName(int index) {
-        String name = BoxFsPaths.getName(path, index);
-        return new BoxFsPath(fileSystem, name);
+        return new BoxFsPath(fileSystem, segments().name(index));
     }
 
     @Override
     public BoxFsPath subpath(int beginIndex, int endIndex) {
-        String subpath = BoxFsPaths.subpath(this.path, beginIndex, endIndex);
-        return new BoxFsPath(fileSystem, subpath);
+        return new BoxFsPath(fileSystem, segments().subpath(beginIndex, endIndex));
     }
 
     @Override
@@ -88,12 +101,12 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath normalize() {
-        return new BoxFsPath(fileSystem, Paths.get(path).normalize().toString());
+        return new BoxFsPath(fileSystem, Paths.get(toString()).normalize().toString());
     }
 
     @Override
     public BoxFsPath resolve(Path other) {
-        String resolved = BoxFsPaths.resolve(path, other.toString());
+        String resolved = BoxFsPaths.resolve(toString(), other.toString());
 
         return new BoxFsPath(
                 fileSystem,
@@ -103,7 +116,7 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath resolve(String other) {
-        return new BoxFsPath(fileSystem, BoxFsPaths.resolve(path, other));
+        return new BoxFsPath(fileSystem, BoxFsPaths.resolve(toString(), other));
     }
 
     @Override
@@ -118,7 +131,7 @@ class BoxFsPath implements Path {
 
     @Override
     public BoxFsPath relativize(Path other) {
-        String relativize = BoxFsPaths.relativize(path, other.toString());
+        String relativize = BoxFsPaths.relativize(toString(), other.toString());
         return new BoxFsPath(fileSystem, relativize);
     }
 
@@ -133,7 +146,7 @@ class BoxFsPath implements Path {
             return this;
         }
 
-        String absolutePath = BoxFsPaths.toAbsolutePath(path);
+        String absolutePath = BoxFsPaths.toAbsolutePath(toString());
         return new BoxFsPath(fileSystem, absolutePath);
     }
 
@@ -149,17 +162,21 @@ class BoxFsPath implements Path {
 
     @Override
     public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
+        if (!(watcher instanceof BoxFsWatchService)) {
+            throw new ProviderMismatchException();
+        }
+
+        return ((BoxFsWatchService) watcher).register(this, events);
     }
 
     @Override
     public WatchKey register(WatchService watcher, WatchEvent.Kind<?>... events) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
+        return register(watcher, events, new WatchEvent.Modifier[0]);
     }
 
     @Override
     public Iterator<Path> iterator() {
-        final Iterator<String> it = BoxFsPaths.iterator(this.path);
+        final Iterator<String> it = BoxFsPaths.iterator(toString());
 
         return new Iterator<Path>() {
             @Override
@@ -181,26 +198,36 @@ class BoxFsPath implements Path {
 
     @Override
     public String toString() {
-        return this.path;
+        String string = path;
+
+        if (string == null) {
+            string = segments.toString();
+            path = string;
+        }
+
+        return string;
+    }
+
+    BoxFsPathSegments segments() {
+        BoxFsPathSegments parsed = segments;
+
+        if (parsed == null) {
+            parsed = BoxFsPathSegments.parse(path);
+            segments = parsed;
+        }
+
+        return parsed;
     }
 
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         BoxFsPath paths = (BoxFsPath) o;
-        return Objects.equals(toLowerCase(path), toLowerCase(paths.path));
+        return Objects.equals(BoxFsFileName.fold(toString()), BoxFsFileName.fold(paths.toString()));
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(toLowerCase(path));
-    }
-
-    private static String toLowerCase(String name) {
-        if (name == null) {
-            return null;
-        }
-
-        return name.toLowerCase();
+        return Objects.hashCode(BoxFsFileName.fold(toString()));
     }
 }
@@ -0,0 +1,129 @@
+package de.borisskert.boxfs.windows;
+
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class BoxFsQuotaPageAllocator implements BoxFsPageAllocator {
+    private final BoxFsPageAllocator delegate;
+    private final BoxFsFileStore fileStore;
+    private final ReferenceQueue<ByteBuffer> unreachableMappings = new ReferenceQueue<>();
+    private final Set<MappedRegion> mappings = ConcurrentHashMap.newKeySet();
+
+    BoxFsQuotaPageAllocator(BoxFsPageAllocator delegate, BoxFsFileStore fileStore) {
+        this.delegate = delegate;
+        this.fileStore = fileStore;
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity) throws IOException {
+        delegate.ensureOpen();
+        freeUnreachableMappings();
+        fileStore.reserve(capacity);
+
+        try {
+            return delegate.allocate(capacity);
+        } catch (RuntimeException | Error e) {
+            fileStore.free(capacity);
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer[] allocate(int count, int capacity) throws IOException {
+        delegate.ensureOpen();
+        freeUnreachableMappings();
+        long bytes = (long) count * capacity;
+        fileStore.reserve(bytes);
+
+        try {
+            return delegate.allocate(count, capacity);
+        } catch (IOException | RuntimeException | Error e) {
+            fileStore.free(bytes);
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer resize(ByteBuffer page, int capacity) throws IOException {
+        delegate.ensureOpen();
+        int grown = capacity - page.capacity();
+        fileStore.reserve(grown);
+
+        try {
+            return delegate.resize(page, capacity);
+        } catch (IOException | RuntimeException | Error e) {
+            fileStore.free(grown);
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer allocateMapped(int capacity) throws IOException {
+        delegate.ensureOpen();
+        freeUnreachableMappings();
+        fileStore.reserve(capacity);
+
+        try {
+            ByteBuffer mapped = delegate.allocateMapped(capacity);
+            mappings.add(new MappedRegion(mapped, unreachableMappings));
+
+            return mapped;
+        } catch (IOException | RuntimeException | Error e) {
+            fileStore.free(capacity);
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(ByteBuffer page) {
+        delegate.release(page);
+        fileStore.free(page.capacity());
+    }
+
+    @Override
+    public void ensureOpen() {
+        delegate.ensureOpen();
+    }
+
+    @Override
+    public void enter() {
+        delegate.enter();
+    }
+
+    @Override
+    public void exit() {
+        delegate.exit();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    // mapped buffers are handed out to callers, so their space is only returned once they become unreachable
+    private void freeUnreachableMappings() {
+        Reference<? extends ByteBuffer> reference;
+
+        while ((reference = unreachableMappings.poll()) != null) {
+            MappedRegion region = (MappedRegion) reference;
+
+            if (mappings.remove(region)) {
+                fileStore.free(region.capacity);
+            }
+        }
+    }
+
+    private static class MappedRegion extends PhantomReference<ByteBuffer> {
+        private final int capacity;
+
+        MappedRegion(ByteBuffer buffer, ReferenceQueue<ByteBuffer> queue) {
+            super(buffer, queue);
+            this.capacity = buffer.capacity();
+        }
+    }
+}
@@ -126,16 +126,6 @@ class BoxFsRootPath extends BoxFsPath {
         throw new UnsupportedOperationException("Not yet implemented");
     }
 
-    @Override
-    public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
-    @Override
-    public WatchKey register(WatchService watcher, WatchEvent.Kind<?>... events) throws IOException {
-        throw new UnsupportedOperationException("Not yet implemented");
-    }
-
     @Override
     public Iterator<Path> iterator() {
         throw new UnsupportedOperationException("Not yet implemented");
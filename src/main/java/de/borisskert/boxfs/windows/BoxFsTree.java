@@ -1,25 +1,45 @@
 package de.borisskert.boxfs.windows;
 
+import de.borisskert.boxfs.BoxFsTreeStatistics;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttributeView;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class BoxFsTree implements BoxFsNode {
     private static final Pattern DRIVE_LETTER_PATTERN = Pattern.compile("^(?<driveletter>[A-Za-z]):\\\\.*$");
+    private static final String SEPARATOR = "\\";
+    static final int MAX_CACHED_NODES = 4096;
 
     private final BoxFsFileSystem fileSystem;
     private final Map<Character, BoxFsDrive> drives = new ConcurrentHashMap<>();
 
+    private final Map<String, BoxFsNode> nodeCache = Collections.synchronizedMap(new LinkedHashMap<String, BoxFsNode>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BoxFsNode> eldest) {
+            return size() > MAX_CACHED_NODES;
+        }
+    });
+    private final AtomicLong modifications = new AtomicLong();
+
     BoxFsTree(BoxFsFileSystem fileSystem) {
         this.fileSystem = fileSystem;
         this.drives.put('C', new BoxFsDrive(fileSystem, 'C'));
@@ -36,14 +56,17 @@ class BoxFsTree implements BoxFsNode {
         }
 
         if (foundDrive.isPresent()) {
-            foundDrive.get().createDirectory(
-                    absolutePath.subpath(0, absolutePath.getNameCount())
-            );
+            foundDrive.get().createDirectory(BoxFsPathSegments.of(absolutePath), 0);
         } else {
             throw new NoSuchFileException(absolutePath.toString());
         }
     }
 
+    @Override
+    public void createDirectory(BoxFsPathSegments path, int index) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
     @Override
     public void createFile(Path path) throws IOException {
         Path absolutePath = path.isAbsolute() ? path : path.toAbsolutePath();
@@ -55,14 +78,17 @@ class BoxFsTree implements BoxFsNode {
         }
 
         if (foundDrive.isPresent()) {
-            foundDrive.get().createFile(
-                    absolutePath.subpath(0, absolutePath.getNameCount())
-            );
+            foundDrive.get().createFile(BoxFsPathSegments.of(absolutePath), 0);
         } else {
             throw new NoSuchFileException(absolutePath.toString());
         }
     }
 
+    @Override
+    public void createFile(BoxFsPathSegments path, int index) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
     @Override
     public void delete(Path path) throws IOException {
         Path absolutePath = path.isAbsolute() ? path : path.toAbsolutePath();
@@ -74,12 +100,40 @@ class BoxFsTree implements BoxFsNode {
         }
 
         if (foundDrive.isPresent()) {
-            foundDrive.get().delete(
-                    absolutePath.subpath(0, absolutePath.getNameCount())
-            );
+            Optional<BoxFsNode> deleted = lookup(foundDrive.get(), absolutePath);
+            foundDrive.get().delete(BoxFsPathSegments.of(absolutePath), 0);
+
+            if (deleted.isPresent()) {
+                invalidate(absolutePath, deleted.get());
+            }
         }
     }
 
+    @Override
+    public void delete(BoxFsPathSegments path, int index) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void attachChild(String name, BoxFsNode child) {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void detachChild(String name) {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void relink(BoxFsNode parent, String name) {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public BoxFsNode copy(BoxFsNode parent, String name) {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
     @Override
     public boolean exists(Path path) {
         Path absolutePath = path.isAbsolute() ? path : path.toAbsolutePath();
@@ -96,7 +150,12 @@ class BoxFsTree implements BoxFsNode {
             return false;
         }
 
-        return drives.get(driveLetter).exists(absolutePath.subpath(0, absolutePath.getNameCount()));
+        return lookup(drives.get(driveLetter), absolutePath).isPresent();
+    }
+
+    @Override
+    public boolean exists(BoxFsPathSegments path, int index) {
+        throw new UnsupportedOperationException("Not yet implemented");
     }
 
     @Override
@@ -130,7 +189,12 @@ class BoxFsTree implements BoxFsNode {
         }
 
         return foundDrive
-                .flatMap(drive -> drive.readNode(absolutePath.subpath(0, absolutePath.getNameCount())));
+                .flatMap(drive -> lookup(drive, absolutePath));
+    }
+
+    @Override
+    public Optional<BoxFsNode> readNode(BoxFsPathSegments path, int index) {
+        throw new UnsupportedOperationException("Not yet implemented");
     }
 
     @Override
@@ -143,7 +207,92 @@ class BoxFsTree implements BoxFsNode {
             throw new IllegalArgumentException("Path must not be a drive root");
         }
 
-        foundDrive.ifPresent(drive -> drive.writeContent(absolutePath.subpath(0, absolutePath.getNameCount()), buffer));
+        foundDrive.ifPresent(drive -> drive.writeContent(BoxFsPathSegments.of(absolutePath), 0, buffer));
+    }
+
+    @Override
+    public void writeContent(BoxFsPathSegments path, int index, ByteBuffer buffer) {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public int readContent(long position, ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public int writeContent(long position, ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public long appendContent(ByteBuffer buffer) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void truncateContent(long size) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public long transferContentTo(long position, long count, WritableByteChannel target) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public long transferContentFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void copyContentFrom(BoxFsNode source) throws IOException {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void retain() {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void release() {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public BoxFsLockTable lockTable() {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public void unlink() {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+    @Override
+    public long nodeCount() {
+        return drives.values()
+                .stream()
+                .mapToLong(BoxFsDrive::nodeCount)
+                .sum();
+    }
+
+    @Override
+    public long fileCount() {
+        return drives.values()
+                .stream()
+                .mapToLong(BoxFsDrive::fileCount)
+                .sum();
+    }
+
+    @Override
+    public int height() {
+        return drives.values()
+                .stream()
+                .mapToInt(BoxFsDrive::height)
+                .max()
+                .orElse(0);
     }
 
     @Override
@@ -166,6 +315,16 @@ class BoxFsTree implements BoxFsNode {
         throw new UnsupportedOperationException("Not yet implemented");
     }
 
+    @Override
+    public Collection<BoxFsNode> childNodes() {
+        return new ArrayList<>(drives.values());
+    }
+
+    @Override
+    public Stream<String> childNames() {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
     @Override
     public Optional<BoxFsNode> parent() {
         throw new UnsupportedOperationException("Not yet implemented");
@@ -184,6 +343,122 @@ class BoxFsTree implements BoxFsNode {
                 .collect(Collectors.toList());
     }
 
+    Map<Character, BoxFsDrive> snapshot() {
+        Map<Character, BoxFsDrive> snapshot = new HashMap<>();
+
+        drives.forEach((driveLetter, drive) -> {
+            BoxFsDrive copy = drive.copyDrive();
+            copy.materialize();
+            snapshot.put(driveLetter, copy);
+        });
+
+        return snapshot;
+    }
+
+    void restore(Map<Character, BoxFsDrive> snapshot) {
+        Map<Character, BoxFsDrive> previous = new HashMap<>(drives);
+
+        drives.keySet().retainAll(snapshot.keySet());
+        snapshot.forEach((driveLetter, drive) -> drives.put(driveLetter, drive.copyDrive()));
+
+        modifications.incrementAndGet();
+        nodeCache.clear();
+
+        previous.values().forEach(BoxFsDrive::unlink);
+    }
+
+    BoxFsTreeStatistics statistics() {
+        BoxFsFileStore fileStore = fileSystem.fileStore();
+        long files = fileStore.fileCount();
+
+        return new BoxFsTreeStatistics(fileStore.nodeCount() - files + drives.size(), files, fileStore.allocatedBytes(), this::height);
+    }
+
+    int cachedNodes() {
+        return nodeCache.size();
+    }
+
+    boolean isCached(Path path) {
+        return nodeCache.containsKey(BoxFsPathSegments.of(path).key());
+    }
+
+    void invalidate(Path path, BoxFsNode node) {
+        modifications.incrementAndGet();
+
+        Path absolutePath = path.isAbsolute() ? path : path.toAbsolutePath();
+        String key = BoxFsPathSegments.of(absolutePath).key();
+
+        if (!node.isDirectory()) {
+            nodeCache.remove(key);
+            return;
+        }
+
+        String prefix = key + SEPARATOR;
+        nodeCache.keySet().removeIf(cached -> cached.equals(key) || cached.startsWith(prefix));
+    }
+
+    BoxFsLookup resolve(Path path) {
+        Path absolutePath = path.isAbsolute() ? path : path.toAbsolutePath();
+        BoxFsPathSegments segments = BoxFsPathSegments.of(absolutePath);
+
+        Optional<BoxFsNode> foundDrive = findDrive(absolutePath);
+        if (!foundDrive.isPresent()) {
+            return new BoxFsLookup(segments, null, null);
+        }
+
+        BoxFsNode drive = foundDrive.get();
+
+        if (segments.count() < 1) {
+            return new BoxFsLookup(segments, null, drive);
+        }
+
+        BoxFsNode cached = nodeCache.get(segments.key());
+        if (cached != null) {
+            return new BoxFsLookup(segments, cached.parent().orElse(null), cached);
+        }
+
+        long modification = modifications.get();
+        int last = segments.count() - 1;
+
+        BoxFsNode parent = last < 1
+                ? drive
+                : lookup(segments.parent(), drive, 0, modification).orElse(null);
+
+        if (parent == null || !parent.isDirectory()) {
+            return new BoxFsLookup(segments, parent, null);
+        }
+
+        BoxFsNode node = lookup(segments, parent, last, modification).orElse(null);
+
+        return new BoxFsLookup(segments, parent, node);
+    }
+
+    private Optional<BoxFsNode> lookup(BoxFsNode drive, Path absolutePath) {
+        return lookup(BoxFsPathSegments.of(absolutePath), drive, 0, modifications.get());
+    }
+
+    private Optional<BoxFsNode> lookup(BoxFsPathSegments segments, BoxFsNode from, int index, long modification) {
+        String key = segments.key();
+
+        BoxFsNode cached = nodeCache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<BoxFsNode> node = from.readNode(segments, index);
+        node.ifPresent(found -> cache(key, found, modification));
+
+        return node;
+    }
+
+    private void cache(String key, BoxFsNode node, long modification) {
+        nodeCache.put(key, node);
+
+        if (modifications.get() != modification) {
+            nodeCache.remove(key, node);
+        }
+    }
+
     private Optional<BoxFsNode> findDrive(Path path) {
         String absolutePath = path.toString();
 
@@ -0,0 +1,44 @@
+package de.borisskert.boxfs.windows;
+
+import java.nio.file.WatchEvent;
+
+class BoxFsWatchEvent<T> implements WatchEvent<T> {
+    private final Kind<T> kind;
+    private final T context;
+    private final String name;
+    private int count = 1;
+
+    BoxFsWatchEvent(Kind<T> kind, T context, String name) {
+        this.kind = kind;
+        this.context = context;
+        this.name = name;
+    }
+
+    @Override
+    public Kind<T> kind() {
+        return kind;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public T context() {
+        return context;
+    }
+
+    boolean isSame(Kind<?> kind, String name) {
+        return this.kind == kind && (this.name == null ? name == null : this.name.equals(name));
+    }
+
+    void repeat() {
+        count++;
+    }
+
+    @Override
+    public String toString() {
+        return kind.name() + ": " + context + " (" + count + ")";
+    }
+}
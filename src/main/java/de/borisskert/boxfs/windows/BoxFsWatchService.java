@@ -0,0 +1,130 @@
+package de.borisskert.boxfs.windows;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+class BoxFsWatchService implements WatchService {
+    private final BoxFsFileSystem fileSystem;
+    private final Deque<BoxFsWatchKey> signalled = new ArrayDeque<>();
+    private volatile boolean closed = false;
+
+    BoxFsWatchService(BoxFsFileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            signalled.clear();
+            notifyAll();
+        }
+
+        fileSystem.watchRegistry().cancel(this);
+    }
+
+    @Override
+    public synchronized WatchKey poll() {
+        ensureOpen();
+        return signalled.poll();
+    }
+
+    @Override
+    public synchronized WatchKey poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+
+        while (signalled.isEmpty() && remaining > 0) {
+            ensureOpen();
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+
+        ensureOpen();
+        return signalled.poll();
+    }
+
+    @Override
+    public synchronized WatchKey take() throws InterruptedException {
+        while (signalled.isEmpty()) {
+            ensureOpen();
+            wait();
+        }
+
+        ensureOpen();
+        return signalled.poll();
+    }
+
+    WatchKey register(BoxFsPath path, WatchEvent.Kind<?>[] events) throws IOException {
+        if (path.getFileSystem() != fileSystem) {
+            throw new ProviderMismatchException();
+        }
+
+        Set<WatchEvent.Kind<?>> kinds = new HashSet<>();
+
+        for (WatchEvent.Kind<?> event : events) {
+            Objects.requireNonNull(event);
+
+            if (event == StandardWatchEventKinds.ENTRY_CREATE
+                    || event == StandardWatchEventKinds.ENTRY_DELETE
+                    || event == StandardWatchEventKinds.ENTRY_MODIFY) {
+                kinds.add(event);
+            } else if (event != StandardWatchEventKinds.OVERFLOW) {
+                throw new UnsupportedOperationException(event.name());
+            }
+        }
+
+        if (kinds.isEmpty()) {
+            throw new IllegalArgumentException("No events to register");
+        }
+
+        ensureOpen();
+
+        BoxFsNode directory = fileSystem.getFileTree().readNode(path)
+                .orElseThrow(() -> new NoSuchFileException(path.toString()));
+
+        if (!directory.isDirectory()) {
+            throw new NotDirectoryException(path.toString());
+        }
+
+        return fileSystem.watchRegistry().register(this, path, directory, kinds);
+    }
+
+    synchronized void enqueue(BoxFsWatchKey key) {
+        if (!closed) {
+            signalled.add(key);
+            notifyAll();
+        }
+    }
+
+    void cancel(BoxFsWatchKey key) {
+        fileSystem.watchRegistry().cancel(key);
+    }
+
+    boolean isOpen() {
+        return !closed;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new ClosedWatchServiceException();
+        }
+    }
+}
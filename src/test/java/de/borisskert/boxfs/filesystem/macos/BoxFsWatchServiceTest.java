@@ -0,0 +1,259 @@
+package de.borisskert.boxfs.filesystem.macos;
+
+import de.borisskert.boxfs.BoxFs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("MacOS BoxFs watch service")
+class BoxFsWatchServiceTest {
+    private FileSystem fs;
+    private WatchService watchService;
+    private Path dir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        fs = BoxFs.macos();
+        watchService = fs.newWatchService();
+        dir = fs.getPath("/dir");
+        Files.createDirectory(dir);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        watchService.close();
+        fs.close();
+    }
+
+    @Test
+    void shouldReportCreatedFiles() throws IOException {
+        WatchKey registered = dir.register(watchService, ENTRY_CREATE);
+
+        Files.createFile(fs.getPath("/dir/file.txt"));
+
+        WatchKey key = watchService.poll();
+        assertThat(key).isSameAs(registered);
+        assertThat(key.watchable()).isEqualTo(dir);
+
+        List<WatchEvent<?>> events = key.pollEvents();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).kind()).isEqualTo(ENTRY_CREATE);
+        assertThat(events.get(0).context()).isEqualTo(fs.getPath("file.txt"));
+        assertThat(events.get(0).count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportDeletedFiles() throws IOException {
+        Path file = fs.getPath("/dir/file.txt");
+        Files.createFile(file);
+        dir.register(watchService, ENTRY_DELETE);
+
+        Files.delete(file);
+
+        List<WatchEvent<?>> events = watchService.poll().pollEvents();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).kind()).isEqualTo(ENTRY_DELETE);
+        assertThat(events.get(0).context()).isEqualTo(fs.getPath("file.txt"));
+    }
+
+    @Test
+    void shouldReportOnlyRegisteredKinds() throws IOException {
+        dir.register(watchService, ENTRY_DELETE);
+
+        Files.createFile(fs.getPath("/dir/file.txt"));
+
+        assertThat(watchService.poll()).isNull();
+    }
+
+    @Test
+    void shouldCoalesceModificationsOfTheSameFile() throws IOException {
+        Path file = fs.getPath("/dir/file.txt");
+        Files.createFile(file);
+        dir.register(watchService, ENTRY_MODIFY);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < 1_000; i++) {
+                channel.write(ByteBuffer.wrap(new byte[]{(byte) i}));
+            }
+        }
+
+        List<WatchEvent<?>> events = watchService.poll().pollEvents();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).kind()).isEqualTo(ENTRY_MODIFY);
+        assertThat(events.get(0).count()).isEqualTo(1_000);
+    }
+
+    @Test
+    void shouldKeepModificationsAfterRecreationInOrder() throws IOException {
+        Path file = fs.getPath("/dir/file.txt");
+        Files.createFile(file);
+        dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+
+        Files.write(file, "first".getBytes());
+        Files.delete(file);
+        Files.createFile(file);
+        Files.write(file, "second".getBytes());
+
+        List<WatchEvent<?>> events = watchService.poll().pollEvents();
+        assertThat(events).extracting(event -> (Object) event.kind())
+                .containsExactly(ENTRY_MODIFY, ENTRY_DELETE, ENTRY_CREATE, ENTRY_MODIFY);
+        assertThat(events).extracting(event -> (Object) event.context())
+                .containsOnly(fs.getPath("file.txt"));
+    }
+
+    @Test
+    void shouldSignalKeyOnceUntilReset() throws IOException {
+        WatchKey registered = dir.register(watchService, ENTRY_CREATE);
+
+        Files.createFile(fs.getPath("/dir/first.txt"));
+        Files.createFile(fs.getPath("/dir/second.txt"));
+
+        WatchKey key = watchService.poll();
+        assertThat(key).isSameAs(registered);
+        assertThat(watchService.poll()).isNull();
+        assertThat(key.pollEvents()).hasSize(2);
+
+        Files.createFile(fs.getPath("/dir/third.txt"));
+        assertThat(watchService.poll()).isNull();
+
+        assertThat(key.reset()).isTrue();
+        assertThat(watchService.poll()).isSameAs(registered);
+    }
+
+    @Test
+    void shouldOverflowUnderBursts() throws IOException {
+        dir.register(watchService, ENTRY_CREATE);
+
+        for (int i = 0; i < 600; i++) {
+            Files.createFile(fs.getPath("/dir/file" + i + ".txt"));
+        }
+
+        List<WatchEvent<?>> events = watchService.poll().pollEvents();
+        WatchEvent<?> last = events.get(events.size() - 1);
+
+        assertThat(events).hasSize(513);
+        assertThat(last.kind()).isEqualTo(OVERFLOW);
+        assertThat(last.context()).isNull();
+        assertThat(last.count()).isEqualTo(88);
+    }
+
+    @Test
+    void shouldDeliverManyEventsWithoutPolling() throws Exception {
+        Path file = fs.getPath("/dir/file.txt");
+        Files.createFile(file);
+        dir.register(watchService, ENTRY_MODIFY);
+
+        CompletableFuture<Integer> consumer = CompletableFuture.supplyAsync(() -> {
+            int received = 0;
+
+            try {
+                while (received < 200_000) {
+                    WatchKey key = watchService.take();
+
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        received += event.count();
+                    }
+
+                    key.reset();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return received;
+        });
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < 200_000; i++) {
+                channel.write(ByteBuffer.wrap(new byte[]{(byte) i}), 0);
+            }
+        }
+
+        assertThat(consumer.get(10, TimeUnit.SECONDS)).isEqualTo(200_000);
+    }
+
+    @Test
+    void shouldWakeUpWaitingConsumer() throws Exception {
+        dir.register(watchService, ENTRY_CREATE);
+
+        CompletableFuture<WatchKey> taken = CompletableFuture.supplyAsync(() -> {
+            try {
+                return watchService.take();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Files.createFile(fs.getPath("/dir/file.txt"));
+
+        assertThat(taken.get(10, TimeUnit.SECONDS).watchable()).isEqualTo(dir);
+    }
+
+    @Test
+    void shouldInvalidateKeyWhenDirectoryIsDeleted() throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE);
+
+        Files.delete(dir);
+
+        assertThat(key.isValid()).isFalse();
+        assertThat(watchService.poll()).isSameAs(key);
+        assertThat(key.reset()).isFalse();
+    }
+
+    @Test
+    void shouldStopReportingCancelledKeys() throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE);
+
+        key.cancel();
+        Files.createFile(fs.getPath("/dir/file.txt"));
+
+        assertThat(key.isValid()).isFalse();
+        assertThat(watchService.poll()).isNull();
+    }
+
+    @Test
+    void shouldRejectRegisteringFiles() throws IOException {
+        Path file = fs.getPath("/dir/file.txt");
+        Files.createFile(file);
+
+        assertThatThrownBy(() -> file.register(watchService, ENTRY_CREATE))
+                .isInstanceOf(NotDirectoryException.class);
+    }
+
+    @Test
+    void shouldRejectPollingClosedService() throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE);
+
+        watchService.close();
+
+        assertThat(key.isValid()).isFalse();
+        assertThatThrownBy(() -> watchService.poll())
+                .isInstanceOf(ClosedWatchServiceException.class);
+        assertThatThrownBy(() -> dir.register(watchService, ENTRY_CREATE))
+                .isInstanceOf(ClosedWatchServiceException.class);
+    }
+}
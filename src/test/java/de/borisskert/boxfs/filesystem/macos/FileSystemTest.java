@@ -1,14 +1,28 @@
 package de.borisskert.boxfs.filesystem.macos;
 
+import de.borisskert.boxfs.BoxFs;
 import org.junit.jupiter.api.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.UserPrincipal;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -40,6 +54,267 @@ abstract class FileSystemTest {
             assertThat(fs.isReadOnly()).isFalse();
         }
 
+        @Test
+        void shouldCreateAndFindDeeplyNestedFile() throws IOException {
+            StringBuilder directory = new StringBuilder("/deep");
+            for (int i = 0; i < 20; i++) {
+                directory.append("/").append("level").append(i);
+            }
+
+            Path directoryPath = fs.getPath(directory.toString());
+            Path file = fs.getPath(directory + "/" + "file.txt");
+
+            Files.createDirectories(directoryPath);
+            Files.write(file, "deep".getBytes());
+
+            assertThat(Files.isDirectory(directoryPath)).isTrue();
+            assertThat(Files.isRegularFile(file)).isTrue();
+            assertThat(Files.readAllBytes(file)).isEqualTo("deep".getBytes());
+
+            Files.delete(file);
+
+            assertThat(Files.exists(file)).isFalse();
+            assertThat(Files.exists(directoryPath)).isTrue();
+        }
+
+        @Test
+        void shouldNotFindMovedOrDeletedNodesAfterLookingThemUp() throws IOException {
+            Path directory = fs.getPath("/cached/nested");
+            Path file = fs.getPath("/cached/nested/file.txt");
+            Path movedFile = fs.getPath("/moved/nested/file.txt");
+
+            Files.createDirectories(directory);
+            Files.write(file, "cached".getBytes());
+
+            assertThat(Files.isRegularFile(file)).isTrue();
+            assertThat(Files.isDirectory(directory)).isTrue();
+
+            Files.move(fs.getPath("/cached"), fs.getPath("/moved"));
+
+            assertThat(Files.exists(file)).isFalse();
+            assertThat(Files.exists(directory)).isFalse();
+            assertThat(Files.readAllBytes(movedFile)).isEqualTo("cached".getBytes());
+
+            Files.delete(movedFile);
+            Files.createDirectory(movedFile);
+
+            assertThat(Files.isRegularFile(movedFile)).isFalse();
+            assertThat(Files.isDirectory(movedFile)).isTrue();
+        }
+
+        @Test
+        void shouldCreateFilesOnlyInsideExistingDirectories() throws IOException {
+            Path directory = fs.getPath("/created");
+            Path file = fs.getPath("/created/file.txt");
+
+            assertThatThrownBy(() -> Files.write(file, "created".getBytes()))
+                    .isInstanceOf(NoSuchFileException.class);
+
+            Files.createDirectory(directory);
+            Files.write(file, "created".getBytes(), StandardOpenOption.CREATE_NEW);
+
+            assertThat(Files.readAttributes(file, BasicFileAttributes.class).size()).isEqualTo(7);
+            assertThatThrownBy(() -> Files.write(file, "again".getBytes(), StandardOpenOption.CREATE_NEW))
+                    .isInstanceOf(FileAlreadyExistsException.class);
+            assertThatThrownBy(() -> Files.createDirectory(directory))
+                    .isInstanceOf(FileAlreadyExistsException.class);
+        }
+
+        @Test
+        void shouldNotCreateFilesInsideMovedDirectories() throws IOException {
+            Path file = fs.getPath("/source/nested/file.txt");
+            Path movedFile = fs.getPath("/target/nested/file.txt");
+
+            Files.createDirectories(file.getParent());
+            Files.write(file, "before".getBytes());
+            Files.move(fs.getPath("/source"), fs.getPath("/target"));
+
+            assertThatThrownBy(() -> Files.write(file, "after".getBytes()))
+                    .isInstanceOf(NoSuchFileException.class);
+            assertThat(Files.readAllBytes(movedFile)).isEqualTo("before".getBytes());
+        }
+
+        @Test
+        void shouldWalkFileTree() throws IOException {
+            Path directory = fs.getPath("/walk/nested");
+
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("first.txt"), "first".getBytes());
+            Files.write(directory.resolve("second.txt"), "second".getBytes());
+
+            Set<String> visited = new HashSet<>();
+
+            Files.walkFileTree(fs.getPath("/walk"), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    visited.add(new String(Files.readAllBytes(file)));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            assertThat(visited).containsExactlyInAnyOrder("first", "second");
+        }
+
+        @Test
+        void shouldReadAttributesInBulk() throws IOException {
+            Path file = fs.getPath("/attributes.txt");
+            Files.write(file, "content".getBytes());
+
+            assertThat(Files.readAttributes(file, "*"))
+                    .containsEntry("size", 7L)
+                    .containsEntry("isRegularFile", true)
+                    .containsEntry("isDirectory", false)
+                    .containsEntry("isSymbolicLink", false)
+                    .containsEntry("isOther", false);
+            assertThat(Files.readAttributes(file, "basic:size,isDirectory"))
+                    .containsOnlyKeys("size", "isDirectory");
+            assertThat(Files.readAttributes(file, "posix:*"))
+                    .containsEntry("size", 7L)
+                    .containsKeys("permissions", "owner", "group");
+        }
+
+        @Test
+        void shouldReadOwnerAndGroup() throws IOException {
+            Path file = fs.getPath("/owned.txt");
+            Files.write(file, "content".getBytes());
+
+            PosixFileAttributes attributes = Files.readAttributes(file, PosixFileAttributes.class);
+
+            assertThat(attributes.owner()).isNotNull();
+            assertThat(attributes.group()).isNotNull();
+            assertThat(Files.getOwner(file)).isEqualTo(attributes.owner());
+            assertThat(Files.readAttributes(file, "posix:owner,group"))
+                    .containsEntry("owner", attributes.owner())
+                    .containsEntry("group", attributes.group());
+        }
+
+        @Test
+        void shouldChangeOwner() throws IOException {
+            Path file = fs.getPath("/owned.txt");
+            Files.write(file, "content".getBytes());
+
+            UserPrincipal owner = fs.getUserPrincipalLookupService()
+                    .lookupPrincipalByName(Files.getOwner(file).getName());
+            Files.setOwner(file, owner);
+
+            assertThat(Files.getOwner(file)).isEqualTo(owner);
+        }
+
+        @Test
+        void shouldReadDirectoryAttributesInBulk() throws IOException {
+            Path directory = fs.getPath("/attributes");
+            Files.createDirectory(directory);
+
+            assertThat(Files.readAttributes(directory, "*"))
+                    .containsKey("size")
+                    .containsEntry("isRegularFile", false)
+                    .containsEntry("isDirectory", true);
+            assertThat(Files.readAttributes(directory, "posix:*"))
+                    .containsKeys("size", "permissions", "owner", "group")
+                    .containsEntry("isDirectory", true);
+        }
+
+        @Test
+        void shouldRejectUnknownAttributes() throws IOException {
+            Path file = fs.getPath("/attributes.txt");
+            Files.write(file, "content".getBytes());
+
+            assertThatThrownBy(() -> Files.readAttributes(file, "basic:unknown"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> Files.readAttributes(file, "unknown:*"))
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+
+        @Test
+        void shouldListOnlyAcceptedEntries() throws IOException {
+            Path directory = fs.getPath("/filtered");
+
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("accepted.txt"), "accepted".getBytes());
+            Files.write(directory.resolve("rejected.log"), "rejected".getBytes());
+
+            Set<String> contents = new HashSet<>();
+            DirectoryStream.Filter<Path> filter = path -> path.toString().endsWith(".txt");
+
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, filter)) {
+                for (Path path : paths) {
+                    contents.add(new String(Files.readAllBytes(path)));
+                }
+            }
+
+            assertThat(contents).containsExactly("accepted");
+        }
+
+        @Test
+        void shouldNotOpenDirectoryStreamOfMissingDirectory() {
+            Path directory = fs.getPath("/missing-directory");
+
+            assertThatThrownBy(() -> Files.newDirectoryStream(directory))
+                    .isInstanceOf(NoSuchFileException.class);
+        }
+
+        @Test
+        void shouldNotOpenDirectoryStreamOfFile() throws IOException {
+            Path file = fs.getPath("/not-a-directory.txt");
+            Files.write(file, "content".getBytes());
+
+            assertThatThrownBy(() -> Files.newDirectoryStream(file))
+                    .isInstanceOf(NotDirectoryException.class);
+        }
+
+        @Test
+        void shouldNotReturnIteratorOfDirectoryStreamTwice() throws IOException {
+            Path directory = fs.getPath("/iterated-once");
+            Files.createDirectories(directory);
+
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+                paths.iterator();
+
+                assertThatThrownBy(paths::iterator)
+                        .isInstanceOf(IllegalStateException.class);
+            }
+        }
+
+        @Test
+        void shouldNotReturnIteratorOfClosedDirectoryStream() throws IOException {
+            Path directory = fs.getPath("/closed-stream");
+            Files.createDirectories(directory);
+
+            DirectoryStream<Path> paths = Files.newDirectoryStream(directory);
+            paths.close();
+
+            assertThatThrownBy(paths::iterator)
+                    .isInstanceOf(IllegalStateException.class);
+        }
+
+        @Test
+        void shouldListManyEntriesInParallel() throws IOException {
+            Path directory = fs.getPath("/many");
+            Files.createDirectories(directory);
+
+            for (int i = 0; i < 1000; i++) {
+                Files.write(directory.resolve("file" + i + ".txt"), ("file" + i).getBytes());
+            }
+
+            try (Stream<Path> paths = Files.list(directory)) {
+                Set<String> contents = paths.parallel()
+                        .map(path -> {
+                            try {
+                                return new String(Files.readAllBytes(path));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .collect(Collectors.toSet());
+
+                assertThat(contents).hasSize(1000).contains("file0", "file999");
+            }
+
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+                assertThat(StreamSupport.stream(paths.spliterator(), true).count()).isEqualTo(1000);
+            }
+        }
+
         @Nested
         class WhenGetRoot {
             Path root;
@@ -332,6 +607,178 @@ abstract class FileSystemTest {
                         assertThat(Files.readAllBytes(largeFile)).isEqualTo(largeContent);
                     }
 
+                    @Test
+                    void shouldAppendLargeContentInSmallChunks() throws Exception {
+                        Path chunkedFile = fs.getPath("/chunkedfile.txt");
+
+                        byte[] chunk = new byte[1000];
+                        byte[] expected = new byte[chunk.length * 100];
+
+                        try (OutputStream out = Files.newOutputStream(chunkedFile)) {
+                            for (int i = 0; i < 100; i++) {
+                                Arrays.fill(chunk, (byte) i);
+                                System.arraycopy(chunk, 0, expected, i * chunk.length, chunk.length);
+                                out.write(chunk);
+                            }
+                        }
+
+                        assertThat(Files.size(chunkedFile)).isEqualTo(expected.length);
+                        assertThat(Files.readAllBytes(chunkedFile)).isEqualTo(expected);
+                    }
+
+                    @Test
+                    void shouldReplaceContentWhenWritingAgain() throws Exception {
+                        Files.write(file, "Bye".getBytes());
+
+                        assertThat(Files.size(file)).isEqualTo(3);
+                        assertThat(Files.readAllBytes(file)).isEqualTo("Bye".getBytes());
+                    }
+
+                    @Test
+                    void shouldAppendContent() throws Exception {
+                        Files.write(file, "!!".getBytes(), StandardOpenOption.APPEND);
+
+                        assertThat(Files.readAllBytes(file)).isEqualTo("Hello World!!!".getBytes());
+                    }
+
+                    @Test
+                    void shouldReadFromPosition() throws Exception {
+                        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+                            ByteBuffer buffer = ByteBuffer.allocate(5);
+
+                            channel.position(6);
+
+                            assertThat(channel.read(buffer)).isEqualTo(5);
+                            assertThat(buffer.array()).isEqualTo("World".getBytes());
+                            assertThat(channel.position()).isEqualTo(11);
+                        }
+                    }
+
+                    @Test
+                    void shouldOverwriteContentInPlace() throws Exception {
+                        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+                            channel.position(6);
+                            channel.write(ByteBuffer.wrap("BoxFs!".getBytes()));
+
+                            assertThat(channel.position()).isEqualTo(12);
+                            assertThat(channel.size()).isEqualTo(12);
+                        }
+
+                        assertThat(Files.readAllBytes(file)).isEqualTo("Hello BoxFs!".getBytes());
+                    }
+
+                    @Test
+                    void shouldExtendFileWithZerosWhenWritingBehindEnd() throws Exception {
+                        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+                            channel.position(20);
+                            channel.write(ByteBuffer.wrap("!".getBytes()));
+                        }
+
+                        byte[] expected = new byte[21];
+                        System.arraycopy("Hello World!".getBytes(), 0, expected, 0, 12);
+                        expected[20] = '!';
+
+                        assertThat(Files.size(file)).isEqualTo(21);
+                        assertThat(Files.readAllBytes(file)).isEqualTo(expected);
+                    }
+
+                    @Test
+                    void shouldTruncateFile() throws Exception {
+                        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+                            channel.position(10);
+                            channel.truncate(5);
+
+                            assertThat(channel.size()).isEqualTo(5);
+                            assertThat(channel.position()).isEqualTo(5);
+                        }
+
+                        assertThat(Files.readAllBytes(file)).isEqualTo("Hello".getBytes());
+                    }
+
+                    @Test
+                    void shouldReadFromPositionWithoutMovingFileChannel() throws Exception {
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                            ByteBuffer buffer = ByteBuffer.allocate(5);
+
+                            assertThat(channel.read(buffer, 6)).isEqualTo(5);
+                            assertThat(buffer.array()).isEqualTo("World".getBytes());
+                            assertThat(channel.position()).isEqualTo(0);
+                        }
+                    }
+
+                    @Test
+                    void shouldTransferContentToAnotherFile() throws Exception {
+                        Path target = fs.getPath("/copy.txt");
+
+                        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+                             FileChannel destination = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                            assertThat(source.transferTo(6, Long.MAX_VALUE, destination)).isEqualTo(6);
+                        }
+
+                        assertThat(Files.readAllBytes(target)).isEqualTo("World!".getBytes());
+                    }
+
+                    @Test
+                    void shouldTransferContentFromAnotherFile() throws Exception {
+                        Path source = fs.getPath("/copy.txt");
+                        Files.write(source, "BoxFs!".getBytes());
+
+                        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+                             FileChannel destination = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                            assertThat(destination.transferFrom(sourceChannel, 6, 100)).isEqualTo(6);
+                        }
+
+                        assertThat(Files.readAllBytes(file)).isEqualTo("Hello BoxFs!".getBytes());
+                    }
+
+                    @Test
+                    void shouldMapFileContentReadOnly() throws Exception {
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 6, 5);
+                            byte[] bytes = new byte[5];
+                            mapped.get(bytes);
+
+                            assertThat(bytes).isEqualTo("World".getBytes());
+                            assertThat(mapped.isReadOnly()).isTrue();
+                        }
+                    }
+
+                    @Test
+                    void shouldNotMapReadOnlyRegionBeyondEndOfFile() throws Exception {
+                        long size = Files.size(file);
+
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                            assertThatThrownBy(() -> channel.map(FileChannel.MapMode.READ_ONLY, 0, size + 1))
+                                    .isInstanceOf(IOException.class);
+                        }
+                    }
+
+                    @Test
+                    void shouldNotMapPrivateCopyOfReadOnlyChannel() throws Exception {
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                            assertThatThrownBy(() -> channel.map(FileChannel.MapMode.PRIVATE, 0, 5))
+                                    .isInstanceOf(NonWritableChannelException.class);
+                        }
+                    }
+
+                    @Test
+                    void shouldKeepAccessToContentOfDeletedFileWhileChannelIsOpen() throws Exception {
+                        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                            Files.delete(file);
+
+                            channel.position(12);
+                            channel.write(ByteBuffer.wrap(" Bye!".getBytes()));
+
+                            ByteBuffer buffer = ByteBuffer.allocate(17);
+                            channel.position(0);
+
+                            assertThat(channel.read(buffer)).isEqualTo(17);
+                            assertThat(buffer.array()).isEqualTo("Hello World! Bye!".getBytes());
+                        }
+
+                        assertThat(Files.exists(file)).isFalse();
+                    }
+
                     @Test
                     void shouldNotDoAnythingWhenCopyFileToSameTarget() throws IOException {
                         Files.copy(file, file);
@@ -448,6 +895,16 @@ abstract class FileSystemTest {
 
                         assertThat(Files.exists(file)).isFalse();
                     }
+
+                    @Test
+                    void shouldMoveFileAtomically() throws IOException {
+                        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+
+                        assertThat(Files.exists(target)).isTrue();
+                        assertThat(Files.readAllBytes(target)).isEqualTo("Hello World!".getBytes());
+
+                        assertThat(Files.exists(file)).isFalse();
+                    }
                 }
 
                 @Nested
@@ -636,6 +1093,29 @@ abstract class FileSystemTest {
                         assertThat(file.toString()).isEqualTo(testFilePath);
                     }
 
+                    @Test
+                    void shouldKeepCopiesIndependentWhenWritingAfterCopy() throws IOException {
+                        byte[] content = new byte[40 * 1024];
+                        Arrays.fill(content, (byte) 'x');
+                        Files.write(secondFile, content);
+
+                        Files.copy(secondFile, file, REPLACE_EXISTING);
+
+                        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+                            channel.position(20 * 1024);
+                            channel.write(ByteBuffer.wrap("copy".getBytes()));
+                        }
+                        Files.write(secondFile, "source".getBytes(), StandardOpenOption.APPEND);
+
+                        byte[] expectedCopy = Arrays.copyOf(content, content.length);
+                        System.arraycopy("copy".getBytes(), 0, expectedCopy, 20 * 1024, 4);
+                        byte[] expectedSource = Arrays.copyOf(content, content.length + 6);
+                        System.arraycopy("source".getBytes(), 0, expectedSource, content.length, 6);
+
+                        assertThat(Files.readAllBytes(file)).isEqualTo(expectedCopy);
+                        assertThat(Files.readAllBytes(secondFile)).isEqualTo(expectedSource);
+                    }
+
                     @Test
                     void shouldFailWhenTryingToCopyOtherFileToSecondWithoutReplace() {
                         assertThatThrownBy(() -> Files.copy(file, secondFile))
@@ -1162,6 +1642,15 @@ abstract class FileSystemTest {
                             assertThat(Files.isDirectory(fileInDir)).isFalse();
                             assertThat(Files.isRegularFile(fileInDir)).isFalse();
                         }
+
+                        @Test
+                        void shouldFailWhenMovingDirectoryIntoItself() {
+                            assertThatThrownBy(() -> Files.move(target, target.resolve("nested")))
+                                    .isInstanceOf(IOException.class);
+
+                            assertThat(Files.isDirectory(target)).isTrue();
+                            assertThat(Files.isRegularFile(targetFile)).isTrue();
+                        }
                     }
 
                     @Nested
@@ -1240,6 +1729,44 @@ abstract class FileSystemTest {
                                     assertThat(Files.size(secondFileInSubdir)).isEqualTo(16L);
                                 }
 
+                                @Test
+                                void shouldCopyParentDirectoryTree() throws IOException {
+                                    Path target = fs.getPath("/copieddir");
+
+                                    try {
+                                        BoxFs.copyTree(dir, target);
+
+                                        Path targetSubdir = target.resolve(SUBDIR_NAME);
+                                        assertThat(Files.isDirectory(targetSubdir)).isTrue();
+                                        assertThat(Files.readAllBytes(targetSubdir.resolve(FIRST_FILE_IN_SUBDIR_NAME))).isEqualTo("Hello World! (1)".getBytes());
+                                        assertThat(Files.readAllBytes(targetSubdir.resolve(SECOND_TESTFILE_IN_SUBDIR_NAME))).isEqualTo("Hello World! (2)".getBytes());
+
+                                        Files.write(targetSubdir.resolve(SECOND_TESTFILE_IN_SUBDIR_NAME), "Changed".getBytes());
+                                        assertThat(Files.readAllBytes(secondFileInSubdir)).isEqualTo("Hello World! (2)".getBytes());
+
+                                        Files.createFile(subdir.resolve("added.txt"));
+                                        assertThat(Files.exists(targetSubdir.resolve("added.txt"))).isFalse();
+                                    } finally {
+                                        BoxFs.deleteTree(target);
+                                    }
+                                }
+
+                                @Test
+                                void shouldFailWhenCopyingDirectoryTreeToExistingTarget() {
+                                    assertThatThrownBy(() -> BoxFs.copyTree(subdir, dir))
+                                            .isInstanceOf(FileAlreadyExistsException.class);
+                                }
+
+                                @Test
+                                void shouldDeleteParentDirectoryTree() throws IOException {
+                                    BoxFs.deleteTree(dir);
+
+                                    assertThat(Files.exists(dir)).isFalse();
+                                    assertThat(Files.exists(subdir)).isFalse();
+                                    assertThat(Files.exists(fileInSubdir)).isFalse();
+                                    assertThat(Files.exists(secondFileInSubdir)).isFalse();
+                                }
+
                                 @Nested
                                 class MoveParentDirectoryToAbsolutePath {
                                     String targetDirPath = "/targetdir";
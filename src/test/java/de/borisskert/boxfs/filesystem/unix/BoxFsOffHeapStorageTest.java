@@ -0,0 +1,96 @@
+package de.borisskert.boxfs.filesystem.unix;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Unix BoxFs off-heap storage")
+class BoxFsOffHeapStorageTest {
+    private FileSystem fs;
+
+    @BeforeEach
+    void setup() {
+        fs = BoxFs.unix(BoxFsOptions.defaults().withStorage(BoxFsStorage.OFF_HEAP));
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void shouldFailPendingReadersInsteadOfReadingFreedMemory() throws Exception {
+        Path file = fs.getPath("/file.bin");
+        Files.write(file, new byte[64 * 1024]);
+
+        AtomicInteger reads = new AtomicInteger();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CompletableFuture<Throwable> reader = CompletableFuture.supplyAsync(() -> {
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+                try {
+                    while (true) {
+                        buffer.clear();
+                        channel.read(buffer, 0);
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    return e;
+                }
+            });
+
+            while (reads.get() < 100) {
+                Thread.yield();
+            }
+
+            fs.close();
+
+            assertThat(reader.get(10, TimeUnit.SECONDS)).isInstanceOf(ClosedFileSystemException.class);
+        }
+    }
+
+    @Test
+    void shouldReusePooledPagesForLaterCopies() throws IOException {
+        Path file = fs.getPath("/file.bin");
+        Path copy = fs.getPath("/copy.bin");
+        byte[] content = new byte[40 * 1024];
+        Arrays.fill(content, (byte) 'x');
+        Files.write(file, content);
+
+        for (int i = 0; i < 3; i++) {
+            Files.copy(file, copy);
+
+            try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap("copy".getBytes()), 20 * 1024);
+            }
+
+            byte[] expected = Arrays.copyOf(content, content.length);
+            System.arraycopy("copy".getBytes(), 0, expected, 20 * 1024, 4);
+
+            assertThat(Files.readAllBytes(copy)).isEqualTo(expected);
+            assertThat(Files.readAllBytes(file)).isEqualTo(content);
+
+            Files.delete(copy);
+        }
+    }
+}
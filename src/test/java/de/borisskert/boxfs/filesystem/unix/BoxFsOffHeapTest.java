@@ -0,0 +1,16 @@
+package de.borisskert.boxfs.filesystem.unix;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsStorage;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.file.FileSystem;
+
+@DisplayName("Unix FileSystemTest (BoxFs, off-heap)")
+class BoxFsOffHeapTest extends FileSystemTest {
+    @Override
+    FileSystem getFs() {
+        return BoxFs.unix(BoxFsOptions.defaults().withStorage(BoxFsStorage.OFF_HEAP));
+    }
+}
@@ -0,0 +1,228 @@
+package de.borisskert.boxfs.filesystem.windows;
+
+import de.borisskert.boxfs.BoxFs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Windows BoxFs file locks")
+class BoxFsFileLockTest {
+    private FileSystem fs;
+    private Path file;
+
+    @BeforeEach
+    void setup() throws IOException {
+        fs = BoxFs.windows();
+        file = fs.getPath("C:\\file.log");
+        Files.createFile(file);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void shouldNotLoseConcurrentAppends() throws IOException {
+        IntStream.range(0, 8).parallel().forEach(writer -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+                for (int i = 0; i < 1_000; i++) {
+                    channel.write(ByteBuffer.wrap("line\n".getBytes(StandardCharsets.UTF_8)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        List<String> lines = Files.readAllLines(file);
+
+        assertThat(lines).hasSize(8_000);
+        assertThat(lines).containsOnly("line");
+    }
+
+    @Test
+    void shouldNotLoseWritesThroughSharedChannel() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            IntStream.range(0, 8_000).parallel().forEach(i -> {
+                try {
+                    channel.write(ByteBuffer.wrap(new byte[]{'x'}));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            assertThat(channel.position()).isEqualTo(8_000);
+        }
+
+        assertThat(Files.size(file)).isEqualTo(8_000);
+    }
+
+    @Test
+    void shouldBlockOtherChannelUntilReleased() throws Exception {
+        try (FileChannel first = FileChannel.open(file, StandardOpenOption.WRITE);
+             FileChannel second = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            FileLock lock = first.lock();
+
+            CompletableFuture<FileLock> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return second.lock();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            assertThat(second.tryLock()).isNull();
+            assertThat(waiting).isNotDone();
+
+            lock.release();
+
+            FileLock acquired = waiting.get(10, TimeUnit.SECONDS);
+            assertThat(lock.isValid()).isFalse();
+            assertThat(acquired.isValid()).isTrue();
+            assertThat(acquired.channel()).isSameAs(second);
+        }
+    }
+
+    @Test
+    void shouldShareReadLocks() throws IOException {
+        try (FileChannel first = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel second = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock shared = first.lock(0, Long.MAX_VALUE, true);
+
+            assertThat(shared.isShared()).isTrue();
+            assertThat(second.tryLock(0, Long.MAX_VALUE, true)).isNotNull();
+            assertThat(second.tryLock(0, 10, false)).isNull();
+        }
+    }
+
+    @Test
+    void shouldLockDisjointRegionsIndependently() throws IOException {
+        try (FileChannel first = FileChannel.open(file, StandardOpenOption.WRITE);
+             FileChannel second = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            first.lock(0, 10, false);
+
+            assertThat(second.tryLock(10, 10, false)).isNotNull();
+            assertThat(second.tryLock(5, 10, false)).isNull();
+        }
+    }
+
+    @Test
+    void shouldRejectOverlappingLocksOnSameChannel() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.lock(0, 10, false);
+
+            assertThatThrownBy(() -> channel.tryLock(5, 10, false))
+                    .isInstanceOf(OverlappingFileLockException.class);
+        }
+    }
+
+    @Test
+    void shouldReleaseLocksWhenChannelIsClosed() throws IOException {
+        FileLock lock;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            lock = channel.lock();
+        }
+
+        assertThat(lock.isValid()).isFalse();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            assertThat(channel.tryLock()).isNotNull();
+        }
+    }
+
+    @Test
+    void shouldRejectExclusiveLockOnReadOnlyChannel() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThatThrownBy(channel::lock)
+                    .isInstanceOf(NonWritableChannelException.class);
+        }
+    }
+
+    @Test
+    void shouldTransferToChannelOfSameFile() throws Exception {
+        byte[] content = content(40 * 1024);
+        Files.write(file, content);
+
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            CompletableFuture<Long> transfer = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return source.transferTo(0, content.length, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            assertThat(transfer.get(10, TimeUnit.SECONDS)).isEqualTo(content.length);
+        }
+
+        byte[] expected = new byte[2 * content.length];
+        System.arraycopy(content, 0, expected, 0, content.length);
+        System.arraycopy(content, 0, expected, content.length, content.length);
+
+        assertThat(Files.readAllBytes(file)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldTransferBetweenFilesInBothDirectionsConcurrently() throws Exception {
+        Path other = fs.getPath("C:\\other.log");
+        byte[] content = content(64 * 1024);
+        Files.write(file, content);
+        Files.write(other, content);
+
+        CompletableFuture<Void> forth = CompletableFuture.runAsync(() -> transferRepeatedly(file, other));
+        CompletableFuture<Void> back = CompletableFuture.runAsync(() -> transferRepeatedly(other, file));
+
+        CompletableFuture.allOf(forth, back).get(10, TimeUnit.SECONDS);
+
+        assertThat(Files.readAllBytes(file)).isEqualTo(content);
+        assertThat(Files.readAllBytes(other)).isEqualTo(content);
+    }
+
+    private static void transferRepeatedly(Path from, Path to) {
+        try (FileChannel source = FileChannel.open(from, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel target = FileChannel.open(to, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < 2_000; i++) {
+                target.position(0);
+                source.transferTo(0, source.size(), target);
+
+                target.position(0);
+                source.transferFrom(target, 0, target.size());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) i;
+        }
+
+        return content;
+    }
+}
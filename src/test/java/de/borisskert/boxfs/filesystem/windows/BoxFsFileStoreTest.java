@@ -0,0 +1,220 @@
+package de.borisskert.boxfs.filesystem.windows;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsSnapshot;
+import de.borisskert.boxfs.BoxFsTreeEngine;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Windows BoxFs file store")
+class BoxFsFileStoreTest {
+    private static final int KIB = 1024;
+
+    @Nested
+    class GivenDefaultOptions {
+        private FileSystem fs;
+
+        @BeforeEach
+        void setup() {
+            fs = BoxFs.windows();
+        }
+
+        @AfterEach
+        void teardown() throws IOException {
+            fs.close();
+        }
+
+        @Test
+        void shouldProvideSingleUnlimitedFileStore() throws IOException {
+            FileStore fileStore = Files.getFileStore(fs.getPath("C:\\"));
+
+            assertThat(fs.getFileStores()).containsExactly(fileStore);
+            assertThat(fileStore.type()).isEqualTo("boxfs");
+            assertThat(fileStore.isReadOnly()).isFalse();
+            assertThat(fileStore.getTotalSpace()).isEqualTo(BoxFsOptions.UNLIMITED);
+            assertThat(fileStore.supportsFileAttributeView(BasicFileAttributeView.class)).isTrue();
+            assertThat(fileStore.supportsFileAttributeView("basic")).isTrue();
+        }
+
+        @Test
+        void shouldNotProvideFileStoreOfMissingFile() {
+            assertThatThrownBy(() -> Files.getFileStore(fs.getPath("C:\\missing.txt")))
+                    .isInstanceOf(NoSuchFileException.class);
+        }
+
+        @Test
+        void shouldCountNodes() throws IOException {
+            FileStore fileStore = Files.getFileStore(fs.getPath("C:\\"));
+
+            Files.createDirectories(fs.getPath("C:\\dir\\subdir"));
+            Files.write(fs.getPath("C:\\dir\\file.txt"), "content".getBytes());
+            Files.write(fs.getPath("C:\\dir\\subdir\\file.txt"), "content".getBytes());
+
+            assertThat(fileStore.getAttribute("nodeCount")).isEqualTo(4L);
+
+            Files.delete(fs.getPath("C:\\dir\\subdir\\file.txt"));
+            Files.delete(fs.getPath("C:\\dir\\subdir"));
+
+            assertThat(fileStore.getAttribute("nodeCount")).isEqualTo(2L);
+        }
+
+        @Test
+        void shouldRestoreNodeCount() throws IOException {
+            FileStore fileStore = Files.getFileStore(fs.getPath("C:\\"));
+            Files.write(fs.getPath("C:\\file.txt"), "content".getBytes());
+
+            BoxFsSnapshot snapshot = BoxFs.snapshot(fs);
+
+            Files.createDirectory(fs.getPath("C:\\dir"));
+            Files.write(fs.getPath("C:\\dir\\file.txt"), "content".getBytes());
+            snapshot.restore();
+
+            assertThat(fileStore.getAttribute("nodeCount")).isEqualTo(1L);
+        }
+    }
+
+    @Nested
+    class GivenPersistentTreeEngine {
+        private FileSystem fs;
+
+        @BeforeEach
+        void setup() {
+            fs = BoxFs.windows(BoxFsOptions.defaults().withTreeEngine(BoxFsTreeEngine.PERSISTENT));
+        }
+
+        @AfterEach
+        void teardown() throws IOException {
+            fs.close();
+        }
+
+        @Test
+        void shouldCountConcurrentlyCreatedDirectoriesOnce() throws IOException {
+            FileStore fileStore = Files.getFileStore(fs.getPath("C:\\"));
+
+            IntStream.range(0, 1_000).parallel().forEach(i -> {
+                try {
+                    Files.createDirectories(fs.getPath("C:\\shared\\common\\leaf" + (i % 10)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            assertThat(fileStore.getAttribute("nodeCount")).isEqualTo(12L);
+        }
+    }
+
+    @Nested
+    class GivenLimitedCapacity {
+        private FileSystem fs;
+        private FileStore fileStore;
+
+        @BeforeEach
+        void setup() throws IOException {
+            fs = BoxFs.windows(BoxFsOptions.defaults().withCapacity(64 * KIB));
+            fileStore = Files.getFileStore(fs.getPath("C:\\"));
+        }
+
+        @AfterEach
+        void teardown() throws IOException {
+            fs.close();
+        }
+
+        @Test
+        void shouldReportAllocatedSpace() throws IOException {
+            Files.write(fs.getPath("C:\\file.bin"), new byte[32 * KIB]);
+
+            assertThat(fileStore.getTotalSpace()).isEqualTo(64 * KIB);
+            assertThat(fileStore.getUnallocatedSpace()).isEqualTo(32 * KIB);
+            assertThat(fileStore.getUsableSpace()).isEqualTo(32 * KIB);
+        }
+
+        @Test
+        void shouldFailWhenCapacityIsExceeded() throws IOException {
+            Files.write(fs.getPath("C:\\first.bin"), new byte[48 * KIB]);
+
+            assertThatThrownBy(() -> Files.write(fs.getPath("C:\\second.bin"), new byte[32 * KIB]))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("No space left on device");
+        }
+
+        @Test
+        void shouldReleaseSpaceOfDeletedFiles() throws IOException {
+            Files.write(fs.getPath("C:\\first.bin"), new byte[48 * KIB]);
+            Files.delete(fs.getPath("C:\\first.bin"));
+
+            Files.write(fs.getPath("C:\\second.bin"), new byte[48 * KIB]);
+
+            assertThat(fileStore.getUnallocatedSpace()).isEqualTo(16 * KIB);
+        }
+
+        @Test
+        void shouldReleaseSpaceOfTruncatedFiles() throws IOException {
+            Path file = fs.getPath("C:\\file.bin");
+            Files.write(file, new byte[64 * KIB]);
+
+            Files.write(file, new byte[16 * KIB]);
+
+            assertThat(fileStore.getUnallocatedSpace()).isEqualTo(48 * KIB);
+        }
+
+        @Test
+        void shouldReserveSpaceForMappedRegions() throws IOException {
+            Path file = fs.getPath("C:\\file.bin");
+            Files.write(file, new byte[48 * KIB]);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, 16 * KIB);
+
+                assertThat(mapped.remaining()).isEqualTo(16 * KIB);
+                assertThat(fileStore.getUnallocatedSpace()).isZero();
+                assertThatThrownBy(() -> channel.map(FileChannel.MapMode.READ_ONLY, 0, 16 * KIB))
+                        .isInstanceOf(IOException.class)
+                        .hasMessageContaining("No space left on device");
+            }
+        }
+
+        @Test
+        void shouldGrowFileIntoRemainingSpace() throws IOException {
+            Path file = fs.getPath("C:\\file.bin");
+            Files.write(fs.getPath("C:\\other.bin"), new byte[48 * KIB]);
+            Files.write(file, new byte[8 * KIB]);
+
+            Files.write(file, new byte[8 * KIB], StandardOpenOption.APPEND);
+
+            assertThat(Files.size(file)).isEqualTo(16 * KIB);
+            assertThat(fileStore.getUnallocatedSpace()).isZero();
+        }
+
+        @Test
+        void shouldKeepSpaceWhenWriteExceedsCapacity() throws IOException {
+            Path file = fs.getPath("C:\\file.bin");
+            Files.write(file, new byte[16 * KIB]);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                assertThatThrownBy(() -> channel.write(ByteBuffer.wrap(new byte[96 * KIB]), 0))
+                        .isInstanceOf(IOException.class)
+                        .hasMessageContaining("No space left on device");
+            }
+
+            assertThat(Files.size(file)).isEqualTo(16 * KIB);
+            assertThat(fileStore.getUnallocatedSpace()).isEqualTo(48 * KIB);
+        }
+    }
+}
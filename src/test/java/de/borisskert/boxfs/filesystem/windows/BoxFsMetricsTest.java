@@ -0,0 +1,229 @@
+package de.borisskert.boxfs.filesystem.windows;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsMetrics;
+import de.borisskert.boxfs.BoxFsOperation;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsSnapshot;
+import de.borisskert.boxfs.BoxFsTreeStatistics;
+import org.junit.jupiter.api.*;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Windows BoxFs metrics")
+class BoxFsMetricsTest {
+
+    @Nested
+    class GivenDefaultOptions {
+        private FileSystem fs;
+
+        @BeforeEach
+        void setup() {
+            fs = BoxFs.windows();
+        }
+
+        @AfterEach
+        void teardown() throws IOException {
+            fs.close();
+        }
+
+        @Test
+        void shouldNotRecordOperations() throws IOException {
+            Files.write(fs.getPath("C:\\file.txt"), "content".getBytes());
+
+            BoxFsMetrics metrics = BoxFs.metrics(fs);
+
+            assertThat(metrics.isEnabled()).isFalse();
+            assertThat(metrics.operation(BoxFsOperation.OPEN).count()).isZero();
+            assertThat(metrics.operation(BoxFsOperation.WRITE).bytes()).isZero();
+            assertThat(metrics.tree().nodes()).isZero();
+        }
+    }
+
+    @Nested
+    class GivenMetricsEnabled {
+        private FileSystem fs;
+        private BoxFsMetrics metrics;
+
+        @BeforeEach
+        void setup() {
+            fs = BoxFs.windows(BoxFsOptions.defaults().withMetrics(true));
+            metrics = BoxFs.metrics(fs);
+        }
+
+        @AfterEach
+        void teardown() throws IOException {
+            fs.close();
+        }
+
+        @Test
+        void shouldRecordOperations() throws IOException {
+            Path dir = fs.getPath("C:\\dir");
+            Path file = fs.getPath("C:\\dir\\file.txt");
+
+            Files.createDirectory(dir);
+            Files.write(file, "content".getBytes());
+            Files.readAllBytes(file);
+            Files.readAttributes(file, BasicFileAttributes.class);
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                stream.forEach(path -> {
+                });
+            }
+
+            Files.copy(file, fs.getPath("C:\\dir\\copy.txt"));
+            Files.move(file, fs.getPath("C:\\dir\\moved.txt"));
+            Files.delete(fs.getPath("C:\\dir\\moved.txt"));
+
+            assertThat(metrics.isEnabled()).isTrue();
+            assertThat(metrics.operation(BoxFsOperation.CREATE_DIRECTORY).count()).isEqualTo(1);
+            assertThat(metrics.operation(BoxFsOperation.OPEN).count()).isEqualTo(2);
+            assertThat(metrics.operation(BoxFsOperation.WRITE).bytes()).isEqualTo(7);
+            assertThat(metrics.operation(BoxFsOperation.READ).bytes()).isEqualTo(7);
+            assertThat(metrics.operation(BoxFsOperation.READ_ATTRIBUTES).count()).isPositive();
+            assertThat(metrics.operation(BoxFsOperation.LIST).count()).isEqualTo(1);
+            assertThat(metrics.operation(BoxFsOperation.COPY).count()).isEqualTo(1);
+            assertThat(metrics.operation(BoxFsOperation.MOVE).count()).isEqualTo(1);
+            assertThat(metrics.operation(BoxFsOperation.DELETE).count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldRecordLatencyHistogram() throws IOException {
+            for (int i = 0; i < 100; i++) {
+                Files.createDirectory(fs.getPath("C:\\dir" + i));
+            }
+
+            BoxFsOperation operation = BoxFsOperation.CREATE_DIRECTORY;
+
+            assertThat(metrics.operation(operation).latency().count()).isEqualTo(100);
+            assertThat(metrics.operation(operation).latency().percentile(0.99))
+                    .isGreaterThanOrEqualTo(metrics.operation(operation).latency().percentile(0.5))
+                    .isPositive();
+            assertThat(metrics.operation(operation).totalNanos()).isPositive();
+        }
+
+        @Test
+        void shouldReset() throws IOException {
+            Files.createDirectory(fs.getPath("C:\\dir"));
+
+            metrics.reset();
+
+            assertThat(metrics.operation(BoxFsOperation.CREATE_DIRECTORY).count()).isZero();
+            assertThat(metrics.operation(BoxFsOperation.CREATE_DIRECTORY).latency().count()).isZero();
+        }
+
+        @Test
+        void shouldRecordListingWhenDirectoryStreamIsClosed() throws IOException {
+            Files.createDirectory(fs.getPath("C:\\dir"));
+            Files.write(fs.getPath("C:\\dir\\file.txt"), "content".getBytes());
+
+            DirectoryStream<Path> stream = Files.newDirectoryStream(fs.getPath("C:\\dir"));
+            stream.forEach(path -> {
+            });
+
+            assertThat(metrics.operation(BoxFsOperation.LIST).count()).isZero();
+
+            stream.close();
+            stream.close();
+
+            assertThat(metrics.operation(BoxFsOperation.LIST).count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldRecordReplacingTreeCopyAsSingleCopy() throws IOException {
+            Files.createDirectories(fs.getPath("C:\\source\\nested"));
+            Files.createDirectories(fs.getPath("C:\\target\\nested"));
+            metrics.reset();
+
+            BoxFs.copyTree(fs.getPath("C:\\source"), fs.getPath("C:\\target"), StandardCopyOption.REPLACE_EXISTING);
+
+            assertThat(metrics.operation(BoxFsOperation.COPY).count()).isEqualTo(1);
+            assertThat(metrics.operation(BoxFsOperation.DELETE).count()).isZero();
+        }
+
+        @Test
+        void shouldRecordFailedListing() {
+            assertThatThrownBy(() -> Files.newDirectoryStream(fs.getPath("C:\\missing")))
+                    .isInstanceOf(NoSuchFileException.class);
+
+            assertThat(metrics.operation(BoxFsOperation.LIST).count()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldReportTreeStatistics() throws IOException {
+            Files.createDirectories(fs.getPath("C:\\dir\\nested"));
+            Files.write(fs.getPath("C:\\dir\\first.txt"), "first".getBytes());
+            Files.write(fs.getPath("C:\\dir\\nested\\second.txt"), "second".getBytes());
+
+            BoxFsTreeStatistics tree = metrics.tree();
+
+            assertThat(tree.directories()).isEqualTo(3);
+            assertThat(tree.files()).isEqualTo(2);
+            assertThat(tree.nodes()).isEqualTo(5);
+            assertThat(tree.bytesStored()).isEqualTo(allocatedBytes());
+            assertThat(tree.depth()).isEqualTo(3);
+        }
+
+        @Test
+        void shouldReportTreeStatisticsOfRestoredSnapshot() throws IOException {
+            Files.createDirectories(fs.getPath("C:\\dir\\nested"));
+            Files.write(fs.getPath("C:\\dir\\nested\\file.txt"), "content".getBytes());
+
+            BoxFsSnapshot snapshot = BoxFs.snapshot(fs);
+
+            Files.createDirectories(fs.getPath("C:\\other\\deeper\\deepest"));
+            Files.write(fs.getPath("C:\\other\\deeper\\deepest\\file.txt"), "content".getBytes());
+
+            assertThat(metrics.tree().depth()).isEqualTo(4);
+
+            snapshot.restore();
+
+            BoxFsTreeStatistics tree = metrics.tree();
+
+            assertThat(tree.directories()).isEqualTo(3);
+            assertThat(tree.files()).isEqualTo(1);
+            assertThat(tree.bytesStored()).isEqualTo(allocatedBytes());
+            assertThat(tree.depth()).isEqualTo(3);
+        }
+
+        private long allocatedBytes() throws IOException {
+            FileStore fileStore = Files.getFileStore(fs.getPath("C:\\"));
+            return fileStore.getTotalSpace() - fileStore.getUnallocatedSpace();
+        }
+
+        @Test
+        void shouldExposeMetricsViaJmx() throws IOException, JMException {
+            Files.createDirectory(fs.getPath("C:\\dir"));
+
+            ObjectName name = metrics.registerMBean("windows-metrics-test");
+
+            try {
+                TabularData counts = (TabularData) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Counts");
+                CompositeData createDirectory = counts.get(new Object[]{BoxFsOperation.CREATE_DIRECTORY.name()});
+
+                assertThat(createDirectory.get("value")).isEqualTo(1L);
+                assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "NodeCount")).isEqualTo(2L);
+            } finally {
+                fs.close();
+            }
+
+            assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isFalse();
+        }
+    }
+}
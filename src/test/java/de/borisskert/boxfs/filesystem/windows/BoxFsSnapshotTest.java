@@ -0,0 +1,142 @@
+package de.borisskert.boxfs.filesystem.windows;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsSnapshot;
+import de.borisskert.boxfs.BoxFsStorage;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Windows BoxFs snapshots")
+class BoxFsSnapshotTest {
+    private FileSystem fs;
+
+    @BeforeEach
+    void setup() {
+        fs = BoxFs.windows();
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        fs.close();
+    }
+
+    @Nested
+    class GivenFixtureTree {
+        Path dir;
+        Path file;
+        BoxFsSnapshot snapshot;
+
+        @BeforeEach
+        void setup() throws IOException {
+            dir = fs.getPath("C:\\fixtures");
+            file = dir.resolve("fixture.txt");
+
+            Files.createDirectories(dir.resolve("subdir"));
+            Files.write(file, "Fixture".getBytes());
+
+            snapshot = BoxFs.snapshot(fs);
+        }
+
+        @Test
+        void shouldRestoreModifiedFile() throws IOException {
+            Files.write(file, "Modified".getBytes());
+
+            snapshot.restore();
+
+            assertThat(Files.readAllBytes(file)).isEqualTo("Fixture".getBytes());
+        }
+
+        @Test
+        void shouldRestoreDeletedTree() throws IOException {
+            BoxFs.deleteTree(dir);
+
+            snapshot.restore();
+
+            assertThat(Files.isDirectory(dir.resolve("subdir"))).isTrue();
+            assertThat(Files.readAllBytes(file)).isEqualTo("Fixture".getBytes());
+        }
+
+        @Test
+        void shouldRemoveFilesCreatedAfterSnapshot() throws IOException {
+            Path created = dir.resolve("created.txt");
+            Files.write(created, "Created".getBytes());
+
+            snapshot.restore();
+
+            assertThat(Files.exists(created)).isFalse();
+        }
+
+        @Test
+        void shouldRestoreSameSnapshotRepeatedly() throws IOException {
+            for (int i = 0; i < 3; i++) {
+                Files.write(file, ("Run " + i).getBytes());
+                snapshot.restore();
+            }
+
+            assertThat(Files.readAllBytes(file)).isEqualTo("Fixture".getBytes());
+        }
+
+        @Test
+        void shouldNotRestoreSnapshotOfAnotherFileSystem() throws IOException {
+            try (FileSystem other = BoxFs.windows()) {
+                BoxFsSnapshot otherSnapshot = BoxFs.snapshot(other);
+
+                assertThatThrownBy(() -> ((de.borisskert.boxfs.windows.BoxFsFileSystem) fs).restore(otherSnapshot))
+                        .isInstanceOf(IllegalArgumentException.class);
+            }
+        }
+    }
+
+    @Nested
+    class GivenOffHeapStorage {
+        FileSystem offHeap;
+        FileStore fileStore;
+
+        @BeforeEach
+        void setup() {
+            offHeap = BoxFs.windows(BoxFsOptions.defaults()
+                    .withStorage(BoxFsStorage.OFF_HEAP)
+                    .withCapacity(1024 * 1024));
+            fileStore = offHeap.getFileStores().iterator().next();
+        }
+
+        @AfterEach
+        void teardown() throws IOException {
+            offHeap.close();
+        }
+
+        @Test
+        void shouldReleasePagesWhenDeletingRestoredTree() throws IOException {
+            Path dir = offHeap.getPath("C:\\pages");
+            Path file = dir.resolve("subdir").resolve("file.bin");
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[64 * 1024]);
+
+            BoxFsSnapshot snapshot = BoxFs.snapshot(offHeap);
+            long unallocatedWithSnapshot = fileStore.getUnallocatedSpace();
+
+            snapshot.restore();
+            BoxFs.deleteTree(dir);
+
+            assertThat(fileStore.getUnallocatedSpace()).isEqualTo(unallocatedWithSnapshot);
+
+            snapshot.restore();
+            Files.write(file, new byte[64 * 1024]);
+
+            assertThat(fileStore.getUnallocatedSpace()).isLessThan(unallocatedWithSnapshot);
+
+            BoxFs.deleteTree(dir);
+
+            assertThat(fileStore.getUnallocatedSpace()).isEqualTo(unallocatedWithSnapshot);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.borisskert.boxfs.filesystem.windows;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsVirtualClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Windows BoxFs timestamps")
+class BoxFsTimestampsTest {
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private BoxFsVirtualClock clock;
+    private FileSystem fs;
+
+    @BeforeEach
+    void setup() {
+        clock = BoxFsVirtualClock.startingAt(START);
+        fs = BoxFs.windows(clock);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void shouldStampCreatedFiles() throws IOException {
+        Path file = fs.getPath("C:\\file.txt");
+        Files.createFile(file);
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+        assertThat(attributes.creationTime()).isEqualTo(time(START));
+        assertThat(attributes.lastModifiedTime()).isEqualTo(time(START));
+        assertThat(attributes.lastAccessTime()).isEqualTo(time(START));
+    }
+
+    @Test
+    void shouldUpdateModifiedTimeOnWrite() throws IOException {
+        Path file = fs.getPath("C:\\file.txt");
+        Files.createFile(file);
+
+        clock.advance(Duration.ofMinutes(1));
+        Files.write(file, "content".getBytes());
+
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(time(START.plusSeconds(60)));
+        assertThat(Files.readAttributes(file, BasicFileAttributes.class).creationTime()).isEqualTo(time(START));
+    }
+
+    @Test
+    void shouldUpdateDirectoryModifiedTimeWhenChildrenChange() throws IOException {
+        Path dir = fs.getPath("C:\\dir");
+        Path file = fs.getPath("C:\\dir\\file.txt");
+        Files.createDirectory(dir);
+
+        clock.advance(Duration.ofMinutes(1));
+        Files.createFile(file);
+        assertThat(Files.getLastModifiedTime(dir)).isEqualTo(time(START.plusSeconds(60)));
+
+        clock.advance(Duration.ofMinutes(1));
+        Files.move(file, fs.getPath("C:\\moved.txt"));
+        assertThat(Files.getLastModifiedTime(dir)).isEqualTo(time(START.plusSeconds(120)));
+        assertThat(Files.getLastModifiedTime(fs.getPath("C:\\"))).isEqualTo(time(START.plusSeconds(120)));
+
+        clock.advance(Duration.ofMinutes(1));
+        Files.delete(fs.getPath("C:\\moved.txt"));
+        assertThat(Files.getLastModifiedTime(fs.getPath("C:\\"))).isEqualTo(time(START.plusSeconds(180)));
+    }
+
+    @Test
+    void shouldUpdateAccessTimeLazily() throws IOException {
+        Path file = fs.getPath("C:\\file.txt");
+        Files.write(file, "content".getBytes());
+
+        clock.advance(Duration.ofMinutes(1));
+        Files.readAllBytes(file);
+        assertThat(lastAccessTime(file)).isEqualTo(time(START.plusSeconds(60)));
+
+        clock.advance(Duration.ofMinutes(1));
+        Files.readAllBytes(file);
+        assertThat(lastAccessTime(file)).isEqualTo(time(START.plusSeconds(60)));
+
+        clock.advance(Duration.ofDays(1));
+        Files.readAllBytes(file);
+        assertThat(lastAccessTime(file)).isEqualTo(time(START.plusSeconds(120).plus(Duration.ofDays(1))));
+    }
+
+    @Test
+    void shouldSetTimes() throws IOException {
+        Path file = fs.getPath("C:\\file.txt");
+        Files.createFile(file);
+
+        Files.setLastModifiedTime(file, time(START.minusSeconds(3600)));
+
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(time(START.minusSeconds(3600)));
+        assertThat(lastAccessTime(file)).isEqualTo(time(START));
+    }
+
+    @Test
+    void shouldAgeFilesWithoutWaiting() throws IOException {
+        Path file = fs.getPath("C:\\aging.log");
+        Files.createFile(file);
+
+        for (int day = 1; day <= 1000; day++) {
+            clock.advance(Duration.ofDays(1));
+            Files.write(file, ("day " + day).getBytes());
+
+            assertThat(Files.getLastModifiedTime(file)).isEqualTo(time(START.plus(Duration.ofDays(day))));
+        }
+
+        assertThat(Files.readAttributes(file, BasicFileAttributes.class).creationTime()).isEqualTo(time(START));
+    }
+
+    private static FileTime lastAccessTime(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).lastAccessTime();
+    }
+
+    private static FileTime time(Instant instant) {
+        return FileTime.from(instant);
+    }
+}
@@ -0,0 +1,16 @@
+package de.borisskert.boxfs.filesystem.windows;
+
+import de.borisskert.boxfs.BoxFs;
+import de.borisskert.boxfs.BoxFsOptions;
+import de.borisskert.boxfs.BoxFsTreeEngine;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.file.FileSystem;
+
+@DisplayName("Windows FileSystemTest (BoxFs persistent tree)")
+class PersistentTreeBoxFsTest extends FileSystemTest {
+    @Override
+    FileSystem getFs() {
+        return BoxFs.windows(BoxFsOptions.defaults().withTreeEngine(BoxFsTreeEngine.PERSISTENT));
+    }
+}
@@ -171,6 +171,26 @@ abstract class PathTest {
             assertThat(path.toAbsolutePath().toString()).isEqualTo("C:\\tmp\\a\\b\\c\\d\\test");
         }
 
+        @Test
+        void shouldCreateSubPathOfSubPath() {
+            Path subPath = path.subpath(1, 5).subpath(0, 3);
+
+            assertThat(subPath.toString()).isEqualTo("a\\b\\c");
+            assertThat(subPath.getNameCount()).isEqualTo(3);
+            assertThat(subPath.getName(1).toString()).isEqualTo("b");
+            assertThat(subPath.isAbsolute()).isFalse();
+        }
+
+        @Test
+        void shouldCreateParentOfParent() {
+            Path parentPath = path.getParent().getParent().getParent().getParent();
+
+            assertThat(parentPath.toString()).isEqualTo("C:\\tmp\\a");
+            assertThat(parentPath.getNameCount()).isEqualTo(2);
+            assertThat(parentPath.getFileName().toString()).isEqualTo("a");
+            assertThat(parentPath.isAbsolute()).isTrue();
+        }
+
         @Nested
         class GetParent {
             Path parentPath;
@@ -0,0 +1,55 @@
+package de.borisskert.boxfs.unix;
+
+import de.borisskert.boxfs.BoxFs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoxFsFileNameTest {
+
+    private final Locale defaultLocale = Locale.getDefault();
+    private final FileSystem fs = BoxFs.unix();
+
+    @AfterEach
+    void teardown() throws IOException {
+        Locale.setDefault(defaultLocale);
+        fs.close();
+    }
+
+    @Test
+    void shouldNotEqualIgnoringCase() {
+        Path upper = fs.getPath("/FILE.TXT");
+        Path lower = fs.getPath("/file.txt");
+
+        assertThat(upper).isNotEqualTo(lower);
+        assertThat(BoxFsPathSegments.of(upper).key()).isNotEqualTo(BoxFsPathSegments.of(lower).key());
+    }
+
+    @Test
+    void shouldKeepNamesDifferingInCaseApart() throws IOException {
+        Files.write(fs.getPath("/FILE.TXT"), "upper".getBytes());
+        Files.write(fs.getPath("/file.txt"), "lower".getBytes());
+
+        assertThat(Files.readAllBytes(fs.getPath("/FILE.TXT"))).isEqualTo("upper".getBytes());
+        assertThat(Files.readAllBytes(fs.getPath("/file.txt"))).isEqualTo("lower".getBytes());
+        assertThat(Files.exists(fs.getPath("/File.txt"))).isFalse();
+    }
+
+    @Test
+    void shouldMatchNamesIndependentOfDefaultLocale() throws IOException {
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        Files.write(fs.getPath("/TITLE"), "title".getBytes());
+
+        assertThat(Files.exists(fs.getPath("/TITLE"))).isTrue();
+        assertThat(Files.exists(fs.getPath("/title"))).isFalse();
+        assertThat(Files.exists(fs.getPath("/tıtle"))).isFalse();
+    }
+}
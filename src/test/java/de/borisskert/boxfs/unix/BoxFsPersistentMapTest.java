@@ -0,0 +1,174 @@
+package de.borisskert.boxfs.unix;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoxFsPersistentMapTest {
+
+    private BoxFsPersistentMap<Object, String> map;
+
+    @BeforeEach
+    void setup() {
+        map = new BoxFsPersistentMap<>();
+    }
+
+    @Test
+    void shouldBeEmpty() {
+        assertThat(map).isEmpty();
+        assertThat(map.get("key")).isNull();
+        assertThat(map.remove("key")).isNull();
+    }
+
+    @Test
+    void shouldPutAndGetManyEntries() {
+        Map<Object, String> expected = new HashMap<>();
+
+        IntStream.range(0, 10_000).forEach(i -> {
+            map.put("key" + i, "value" + i);
+            expected.put("key" + i, "value" + i);
+        });
+
+        assertThat(map).hasSize(10_000);
+        assertThat(map).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRemoveEntries() {
+        IntStream.range(0, 10_000).forEach(i -> map.put("key" + i, "value" + i));
+        IntStream.range(0, 10_000).filter(i -> i % 2 == 0).forEach(i -> map.remove("key" + i));
+
+        assertThat(map).hasSize(5_000);
+        assertThat(map.get("key2")).isNull();
+        assertThat(map.get("key3")).isEqualTo("value3");
+    }
+
+    @Test
+    void shouldIterateOverConsistentVersion() {
+        map.put("a", "1");
+        map.put("b", "2");
+
+        Map<Object, String> copied = map.entrySet().stream()
+                .peek(entry -> map.put("c", "3"))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        assertThat(copied).containsOnlyKeys("a", "b");
+        assertThat(map).containsOnlyKeys("a", "b", "c");
+    }
+
+    @Test
+    void shouldSupportConditionalUpdates() {
+        assertThat(map.putIfAbsent("a", "1")).isNull();
+        assertThat(map.putIfAbsent("a", "2")).isEqualTo("1");
+        assertThat(map.replace("a", "2", "3")).isFalse();
+        assertThat(map.replace("a", "1", "3")).isTrue();
+        assertThat(map.remove("a", "1")).isFalse();
+        assertThat(map.remove("a", "3")).isTrue();
+        assertThat(map.computeIfAbsent("b", key -> "4")).isEqualTo("4");
+        assertThat(map).containsOnlyKeys("b");
+    }
+
+    @Test
+    void shouldComputeAbsentValueOnce() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Set<String> values = IntStream.range(0, 1_000).parallel()
+                .mapToObj(i -> map.computeIfAbsent("key", key -> "value" + calls.incrementAndGet()))
+                .collect(Collectors.toSet());
+
+        assertThat(values).hasSize(1);
+        assertThat(map.get("key")).isEqualTo(values.iterator().next());
+        assertThat(map.computeIfAbsent("key", key -> {
+            throw new AssertionError("must not compute present value");
+        })).isEqualTo(map.get("key"));
+    }
+
+    @Test
+    void shouldIterateManyEntriesLazily() {
+        IntStream.range(0, 10_000).forEach(i -> map.put("key" + i, "value" + i));
+
+        Iterator<Map.Entry<Object, String>> iterator = map.entrySet().iterator();
+        map.clear();
+
+        int count = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<Object, String> entry = iterator.next();
+            assertThat(entry.getValue()).isEqualTo("value" + ((String) entry.getKey()).substring(3));
+            count++;
+        }
+
+        assertThat(count).isEqualTo(10_000);
+        assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Nested
+    class CollidingKeys {
+        @BeforeEach
+        void setup() {
+            IntStream.range(0, 100).forEach(i -> map.put(new CollidingKey(i), "value" + i));
+        }
+
+        @Test
+        void shouldGetAllCollidingEntries() {
+            assertThat(map).hasSize(100);
+            IntStream.range(0, 100).forEach(i -> assertThat(map.get(new CollidingKey(i))).isEqualTo("value" + i));
+        }
+
+        @Test
+        void shouldIterateAllCollidingEntries() {
+            assertThat(map.values()).containsExactlyInAnyOrderElementsOf(
+                    IntStream.range(0, 100).mapToObj(i -> "value" + i).collect(Collectors.toList())
+            );
+        }
+
+        @Test
+        void shouldReplaceCollidingEntry() {
+            map.put(new CollidingKey(42), "replaced");
+
+            assertThat(map).hasSize(100);
+            assertThat(map.get(new CollidingKey(42))).isEqualTo("replaced");
+        }
+
+        @Test
+        void shouldRemoveAllCollidingEntries() {
+            IntStream.range(0, 99).forEach(i -> map.remove(new CollidingKey(i)));
+
+            assertThat(map).hasSize(1);
+            assertThat(map.get(new CollidingKey(99))).isEqualTo("value99");
+
+            map.remove(new CollidingKey(99));
+
+            assertThat(map).isEmpty();
+        }
+    }
+
+    private static class CollidingKey {
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
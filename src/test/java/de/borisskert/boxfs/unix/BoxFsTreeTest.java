@@ -0,0 +1,62 @@
+package de.borisskert.boxfs.unix;
+
+import de.borisskert.boxfs.BoxFs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoxFsTreeTest {
+
+    private FileSystem fs;
+    private BoxFsTree tree;
+
+    @BeforeEach
+    void setup() {
+        fs = BoxFs.unix();
+        tree = (BoxFsTree) ((BoxFsFileSystem) fs).getFileTree();
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedNodesBeyondTheCacheBound() throws IOException {
+        Path dir = fs.getPath("/dir");
+        Path hot = dir.resolve("hot.txt");
+
+        Files.createDirectory(dir);
+        Files.write(hot, "hot".getBytes());
+
+        int count = BoxFsTree.MAX_CACHED_NODES + 100;
+        for (int i = 0; i < count; i++) {
+            Path file = dir.resolve("file" + i + ".txt");
+            Files.write(file, ("content" + i).getBytes());
+
+            assertThat(Files.exists(file)).isTrue();
+            assertThat(Files.exists(hot)).isTrue();
+        }
+
+        assertThat(tree.cachedNodes()).isEqualTo(BoxFsTree.MAX_CACHED_NODES);
+        assertThat(tree.isCached(hot)).isTrue();
+        assertThat(tree.isCached(dir.resolve("file0.txt"))).isFalse();
+        assertThat(tree.isCached(dir.resolve("file" + (count - 1) + ".txt"))).isTrue();
+
+        for (int i = 0; i < count; i++) {
+            assertThat(Files.readAllBytes(dir.resolve("file" + i + ".txt"))).isEqualTo(("content" + i).getBytes());
+        }
+
+        Files.delete(dir.resolve("file0.txt"));
+
+        assertThat(Files.exists(dir.resolve("file0.txt"))).isFalse();
+        assertThat(tree.cachedNodes()).isLessThanOrEqualTo(BoxFsTree.MAX_CACHED_NODES);
+    }
+}
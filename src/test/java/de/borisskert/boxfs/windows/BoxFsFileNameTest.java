@@ -0,0 +1,57 @@
+package de.borisskert.boxfs.windows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoxFsFileNameTest {
+
+    private final Locale defaultLocale = Locale.getDefault();
+
+    @AfterEach
+    void teardown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void shouldEqualIgnoringCase() {
+        BoxFsFileName upper = BoxFsFileName.of("FILE.TXT");
+        BoxFsFileName lower = BoxFsFileName.of("file.txt");
+
+        assertThat(upper).isEqualTo(lower);
+        assertThat(upper.hashCode()).isEqualTo(lower.hashCode());
+        assertThat(upper.name()).isEqualTo("FILE.TXT");
+    }
+
+    @Test
+    void shouldNotEqualDifferentNames() {
+        assertThat(BoxFsFileName.of("file.txt")).isNotEqualTo(BoxFsFileName.of("file.bin"));
+    }
+
+    @Test
+    void shouldFoldIndependentOfDefaultLocale() {
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        assertThat(BoxFsFileName.of("TITLE")).isEqualTo(BoxFsFileName.of("title"));
+        assertThat(BoxFsFileName.of("ΣΟΦΙΑ")).isEqualTo(BoxFsFileName.of("σοφια"));
+    }
+
+    @Test
+    void shouldFoldLikeLowerCasingTheWholeName() {
+        assertThat(BoxFsFileName.of("ı")).isNotEqualTo(BoxFsFileName.of("i"));
+        assertThat(BoxFsFileName.of("ı")).isNotEqualTo(BoxFsFileName.of("I"));
+        assertThat(BoxFsFileName.of("İ")).isNotEqualTo(BoxFsFileName.of("i"));
+        assertThat(BoxFsFileName.of("ß")).isNotEqualTo(BoxFsFileName.of("SS"));
+        assertThat(BoxFsFileName.of("ΣΟΦΙΑΣ")).isEqualTo(BoxFsFileName.of("σοφιας"));
+    }
+
+    @Test
+    void shouldKeepAlreadyFoldedNames() {
+        String name = "already-folded.txt";
+
+        assertThat(BoxFsFileName.fold(name)).isSameAs(name);
+    }
+}
@@ -2,6 +2,7 @@ package de.borisskert.boxfs.wrapped.macos;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -60,6 +61,13 @@ public class WrappedFileSystemProvider extends FileSystemProvider {
         return delegate.newByteChannel(unwrap(path), options, attrs);
     }
 
+    @Override
+    public FileChannel newFileChannel(Path path,
+                                      Set<? extends OpenOption> options,
+                                      FileAttribute<?>... attrs) throws IOException {
+        return delegate.newFileChannel(unwrap(path), options, attrs);
+    }
+
     @Override
     public DirectoryStream<Path> newDirectoryStream(
             Path dir, DirectoryStream.Filter<? super Path> filter